@@ -0,0 +1,82 @@
+package degallant.github.io.todoapp;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import degallant.github.io.todoapp.authentication.ApiKeyConfiguration;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.HexFormat;
+
+/**
+ * Authenticates the api keys used in the basic auth of the actuator endpoints.
+ * <p>
+ * Checking a secret against its bcrypt hash is slow on purpose, and the same key is checked on every scrape.
+ * So once a secret is accepted, an HMAC of the key id, the secret and the stored hash is remembered for verified_ttl_seconds,
+ * and the next requests with the same credentials are accepted by computing that HMAC again.
+ * <p>
+ * The HMAC key is random and only lives in memory, so the remembered digests can't be used to guess the secrets.
+ * A deleted key is no longer found by the ApiKeyDetailsService, and a changed secret changes its hash,
+ * so in both cases the remembered digest stops matching.
+ */
+public class ApiKeyAuthenticationProvider extends DaoAuthenticationProvider {
+
+    private static final String HMAC = "HmacSHA256";
+
+    private final Cache<String, Boolean> verified;
+    private final SecretKeySpec hmacKey;
+
+    public ApiKeyAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder, ApiKeyConfiguration configuration) {
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(configuration.cacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(configuration.verifiedTtlSeconds()))
+                .build();
+        var key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.hmacKey = new SecretKeySpec(key, HMAC);
+    }
+
+    @Override
+    protected void additionalAuthenticationChecks(UserDetails userDetails, UsernamePasswordAuthenticationToken authentication) throws AuthenticationException {
+        var credentials = authentication.getCredentials();
+        if (credentials == null) {
+            super.additionalAuthenticationChecks(userDetails, authentication);
+            return;
+        }
+
+        var digest = digest(userDetails.getUsername(), credentials.toString(), userDetails.getPassword());
+        if (verified.getIfPresent(digest) != null) {
+            return;
+        }
+
+        super.additionalAuthenticationChecks(userDetails, authentication);
+        verified.put(digest, true);
+    }
+
+    private String digest(String id, String secret, String hash) {
+        try {
+            var mac = Mac.getInstance(HMAC);
+            mac.init(hmacKey);
+            mac.update(id.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            mac.update(secret.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return HexFormat.of().formatHex(mac.doFinal(hash.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+}
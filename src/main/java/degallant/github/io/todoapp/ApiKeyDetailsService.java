@@ -1,7 +1,7 @@
 package degallant.github.io.todoapp;
 
+import degallant.github.io.todoapp.authentication.ApiKeyCache;
 import degallant.github.io.todoapp.authentication.ApiKeyEntity;
-import degallant.github.io.todoapp.authentication.ApiKeyRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -16,7 +16,7 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ApiKeyDetailsService implements UserDetailsService {
 
-    private final ApiKeyRepository repository;
+    private final ApiKeyCache apiKeyCache;
 
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
@@ -27,7 +27,7 @@ public class ApiKeyDetailsService implements UserDetailsService {
             throw new UsernameNotFoundException(username);
         }
 
-        var apiKey = repository.findByIdAndDeletedAtIsNull(uuid);
+        var apiKey = apiKeyCache.find(uuid);
 
         if (apiKey.isEmpty()) {
             throw new UsernameNotFoundException(username);
@@ -1,7 +1,7 @@
 package degallant.github.io.todoapp;
 
 import degallant.github.io.todoapp.authentication.ApiKeyEntity;
-import degallant.github.io.todoapp.authentication.ApiKeyRepository;
+import degallant.github.io.todoapp.authentication.ApiKeyAccessBuffer;
 import degallant.github.io.todoapp.i18n.Messages;
 import degallant.github.io.todoapp.sanitization.Sanitizer;
 import degallant.github.io.todoapp.sanitization.parsers.ApiKeyFieldParser;
@@ -29,7 +29,7 @@ public class HeaderValidation implements WebMvcConfigurer, HandlerInterceptor {
     private final OffsetHolder offsetHolder;
     private final PrimitiveFieldParser parser;
     private final ApiKeyFieldParser apiKeyParser;
-    private final ApiKeyRepository apiKeyRepository;
+    private final ApiKeyAccessBuffer apiKeyAccessBuffer;
     private final Messages messages;
 
     @Override
@@ -56,8 +56,7 @@ public class HeaderValidation implements WebMvcConfigurer, HandlerInterceptor {
         result.get(HttpHeaders.ACCEPT_LANGUAGE).consumeIfExistsAs(Locale.class, messages::setLocale);
 
         var apiKeyEntity = result.get("Client-Agent").as(ApiKeyEntity.class);
-        apiKeyEntity.setLastAccess(OffsetDateTime.now());
-        apiKeyRepository.save(apiKeyEntity);
+        apiKeyAccessBuffer.record(apiKeyEntity.getId(), OffsetDateTime.now());
 
         return true;
     }
@@ -17,6 +17,13 @@ public class OffsetHolder {
     private ZoneOffset offset;
 
     public OffsetDateTime applyTo(OffsetDateTime offsetDateTime) {
+        return applyTo(offsetDateTime, offset);
+    }
+
+    /**
+     * Same as applyTo, with an offset taken from the request beforehand, for code that runs away from the request thread.
+     */
+    public static OffsetDateTime applyTo(OffsetDateTime offsetDateTime, ZoneOffset offset) {
         if (offsetDateTime == null) {
             return null;
         }
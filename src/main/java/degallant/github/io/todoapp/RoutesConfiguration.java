@@ -1,7 +1,8 @@
 package degallant.github.io.todoapp;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import degallant.github.io.todoapp.authentication.ApiKeyRepository;
+import degallant.github.io.todoapp.authentication.ApiKeyCache;
+import degallant.github.io.todoapp.authentication.ApiKeyConfiguration;
 import degallant.github.io.todoapp.authentication.AuthenticationService;
 import degallant.github.io.todoapp.authentication.CorsAppConfiguration;
 import degallant.github.io.todoapp.authentication.JwtFilter;
@@ -15,6 +16,7 @@ import org.springframework.security.access.hierarchicalroles.RoleHierarchyImpl;
 import org.springframework.security.authorization.AuthorityAuthorizationManager;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.access.intercept.RequestAuthorizationContext;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -49,7 +51,9 @@ public class RoutesConfiguration {
 
     @Bean
     @Order(10)
-    public SecurityFilterChain actuatorFilterChain(HttpSecurity http, ApiKeyRepository apiKeyRepository) throws Exception {
+    public SecurityFilterChain actuatorFilterChain(HttpSecurity http, ApiKeyCache apiKeyCache, PasswordEncoder passwordEncoder, ApiKeyConfiguration apiKeyConfiguration) throws Exception {
+
+        var apiKeyProvider = new ApiKeyAuthenticationProvider(new ApiKeyDetailsService(apiKeyCache), passwordEncoder, apiKeyConfiguration);
 
         http
                 .securityMatcher("/actuator/**")
@@ -57,7 +61,7 @@ public class RoutesConfiguration {
                 .csrf().disable()
                 .cors()
                 .and().httpBasic()
-                .and().userDetailsService(new ApiKeyDetailsService(apiKeyRepository));
+                .and().authenticationProvider(apiKeyProvider);
 
         return http.build();
 
@@ -2,15 +2,19 @@ package degallant.github.io.todoapp;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
 import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
-@SpringBootApplication
+//the reactive reads make their own r2dbc pool, a ConnectionFactory bean would replace the datasource
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 @ConfigurationPropertiesScan
 @EnableCaching
+@EnableScheduling
 public class ToDoAppApplication {
 
     public static void main(String[] args) {
@@ -64,6 +64,7 @@ public class AdminController {
 
         var userToUpdate = usersRepository.findById(result.get("user_id").value()).orElseThrow();
         userToUpdate.setRole(Role.ROLE_ADMIN);
+        userToUpdate.revokeTokens();
         usersRepository.save(userToUpdate);
 
         return ResponseEntity.ok().build();
@@ -102,6 +103,7 @@ public class AdminController {
         }
 
         user.setDeletedAt(OffsetDateTime.now());
+        user.revokeTokens();
         usersRepository.save(user);
         return ResponseEntity.noContent().build();
 
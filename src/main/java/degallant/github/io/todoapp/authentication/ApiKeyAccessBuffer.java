@@ -0,0 +1,81 @@
+package degallant.github.io.todoapp.authentication;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Holds the last access of each api key in memory and writes them to the database in batches.
+ * <p>
+ * Every request goes through an api key, so updating its row right away would put an UPDATE
+ * in every request and make all the requests of a client wait on the same row.
+ * Instead, only the latest access of each key is kept and they are all flushed
+ * every last_access_flush_millis with a single batch, and once more when the app shuts down.
+ * <p>
+ * An access is never moved back in time, so instances flushing at different moments can't overwrite a newer access.
+ */
+@Slf4j
+@Component
+public class ApiKeyAccessBuffer {
+
+    private static final String UPDATE_LAST_ACCESS = "UPDATE api_keys SET last_access = ? WHERE id = ? AND (last_access IS NULL OR last_access < ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Map<UUID, OffsetDateTime> pending = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+
+    public ApiKeyAccessBuffer(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.flushTimer = Timer.builder("apikey.last_access.flush").register(meterRegistry);
+        Gauge.builder("apikey.last_access.pending", pending, Map::size).register(meterRegistry);
+    }
+
+    public void record(UUID apiKeyId, OffsetDateTime accessedAt) {
+        pending.merge(apiKeyId, accessedAt, (old, fresh) -> fresh.isAfter(old) ? fresh : old);
+    }
+
+    public int pendingCount() {
+        return pending.size();
+    }
+
+    @Scheduled(fixedDelayString = "${app.apikey.last_access_flush_millis}")
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        //removing each key takes its latest access, an access recorded after that waits for the next flush
+        var batch = new ArrayList<Object[]>();
+        for (var apiKeyId : pending.keySet()) {
+            var accessedAt = pending.remove(apiKeyId);
+            if (accessedAt != null) {
+                batch.add(new Object[]{accessedAt, apiKeyId, accessedAt});
+            }
+        }
+
+        try {
+            flushTimer.record(() -> jdbcTemplate.batchUpdate(UPDATE_LAST_ACCESS, batch));
+        } catch (DataAccessException exception) {
+            log.warn("Failed to flush the last access of {} api keys, retrying on the next flush", batch.size(), exception);
+            batch.forEach(row -> record((UUID) row[1], (OffsetDateTime) row[0]));
+        }
+    }
+
+    @PreDestroy
+    public void drain() {
+        flush();
+    }
+
+}
@@ -0,0 +1,82 @@
+package degallant.github.io.todoapp.authentication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import degallant.github.io.todoapp.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the api keys sent in the Client-Agent header in memory, so resolving them does not hit the database on every request.
+ * <p>
+ * Ids that do not belong to any active key are cached as well, for cache_negative_ttl_seconds,
+ * so a client sending junk ids can't make every request reach the database.
+ * <p>
+ * Keys are evicted whenever they are saved (e.g. soft deleted), and the eviction is broadcast to the other instances.
+ * If that message is lost, the key still expires after cache_ttl_seconds.
+ */
+@Component
+public class ApiKeyCache {
+
+    public static final String CACHE_NAME = "apikeys";
+
+    private final ApiKeyRepository repository;
+    private final CacheInvalidationBus bus;
+    private final Cache<UUID, Optional<ApiKeyEntity>> keys;
+
+    public ApiKeyCache(ApiKeyRepository repository, CacheInvalidationBus bus, ApiKeyConfiguration configuration, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.bus = bus;
+        this.keys = Caffeine.newBuilder()
+                .maximumSize(configuration.cacheMaxSize())
+                .expireAfter(new KeyExpiry(Duration.ofSeconds(configuration.cacheTtlSeconds()), Duration.ofSeconds(configuration.cacheNegativeTtlSeconds())))
+                .recordStats()
+                .build();
+
+        bus.onInvalidation(invalidation -> {
+            if (CACHE_NAME.equals(invalidation.cacheName()) && invalidation.key() != null) {
+                keys.invalidate(UUID.fromString(invalidation.key()));
+            }
+        });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, keys, CACHE_NAME);
+    }
+
+    /**
+     * @return the api key with the given id, or empty if there is no such key or it was deleted
+     */
+    public Optional<ApiKeyEntity> find(UUID id) {
+        return keys.get(id, repository::findByIdAndDeletedAtIsNull);
+    }
+
+    public void evict(UUID id) {
+        keys.invalidate(id);
+        bus.publish(CACHE_NAME, id.toString());
+    }
+
+    private record KeyExpiry(Duration ttl, Duration negativeTtl) implements Expiry<UUID, Optional<ApiKeyEntity>> {
+
+        @Override
+        public long expireAfterCreate(UUID key, Optional<ApiKeyEntity> value, long currentTime) {
+            return (value.isPresent() ? ttl : negativeTtl).toNanos();
+        }
+
+        @Override
+        public long expireAfterUpdate(UUID key, Optional<ApiKeyEntity> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(UUID key, Optional<ApiKeyEntity> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
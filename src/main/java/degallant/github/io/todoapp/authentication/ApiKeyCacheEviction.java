@@ -0,0 +1,32 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.cache.AfterCommit;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Evicts an api key from the ApiKeyCache whenever it is saved or removed, so a soft deleted key is refused right away.
+ * <p>
+ * Keys created with an id that was cached as unknown are evicted as well.
+ * <p>
+ * Hibernate creates this listener through the spring bean container while the entity manager is being built,
+ * so the cache, which needs a repository, is only looked up when a key is saved.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@RequiredArgsConstructor
+public class ApiKeyCacheEviction {
+
+    private final ObjectProvider<ApiKeyCache> cache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(ApiKeyEntity apiKey) {
+        AfterCommit.evict(() -> cache.getObject().evict(apiKey.getId()));
+    }
+
+}
@@ -0,0 +1,13 @@
+package degallant.github.io.todoapp.authentication;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.apikey")
+public record ApiKeyConfiguration(
+        long lastAccessFlushMillis,
+        long cacheMaxSize,
+        long cacheTtlSeconds,
+        long cacheNegativeTtlSeconds,
+        long verifiedTtlSeconds
+) {
+}
@@ -3,6 +3,7 @@ package degallant.github.io.todoapp.authentication;
 import degallant.github.io.todoapp.common.BaseEntity;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import lombok.*;
 
 import java.time.OffsetDateTime;
@@ -14,6 +15,7 @@ import java.time.OffsetDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "api_keys")
+@EntityListeners(ApiKeyCacheEviction.class)
 public class ApiKeyEntity extends BaseEntity {
 
     private String secret;
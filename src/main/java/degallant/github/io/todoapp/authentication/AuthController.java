@@ -111,7 +111,7 @@ public class AuthController {
     public ResponseEntity<?> refresh(Authentication authentication) {
 
         var user = (UserEntity) authentication.getPrincipal();
-        var tokens = service.refresh(user);
+        var tokens = service.refresh(user, (AuthenticationService.JwtCredentials) authentication.getCredentials());
 
         var tokenPair = AuthDto.TokenPair.builder()
                 .accessToken(tokens.accessToken())
@@ -121,9 +121,16 @@ public class AuthController {
         return ResponseEntity.ok(tokenPair);
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(Authentication authentication) {
+        service.revoke((AuthenticationService.JwtCredentials) authentication.getCredentials());
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/profile")
     public ResponseEntity<?> profile(Authentication authentication) {
-        var entity = (UserEntity) authentication.getPrincipal();
+        var principal = (UserEntity) authentication.getPrincipal();
+        var entity = usersRepository.findById(principal.getId()).orElseThrow();
         var user = UsersDto.Details.builder()
                 .id(entity.getId().toString())
                 .name(entity.getName())
@@ -133,7 +140,7 @@ public class AuthController {
                 .build();
 
         Link selfLink = linkTo(methodOn(getClass()).profile(authentication)).withSelfRel();
-        Link tasksLink = linkTo(methodOn(TasksController.class).list(null, null, null, null, null, authentication)).withRel("tasks");
+        Link tasksLink = linkTo(methodOn(TasksController.class).list(null, null, null, null, null, null, null, null, null, null, authentication, null)).withRel("tasks");
         Link tagsLink = linkTo(methodOn(TagsController.class).list(authentication)).withRel("tags");
         Link projectsLink = linkTo(methodOn(ProjectsController.class).list(authentication)).withRel("projects");
 
@@ -144,7 +151,8 @@ public class AuthController {
 
     @PatchMapping("/profile")
     public ResponseEntity<?> patch(@RequestBody AuthDto.Patch request, Authentication authentication) {
-        var user = (UserEntity) authentication.getPrincipal();
+        var principal = (UserEntity) authentication.getPrincipal();
+        var user = usersRepository.findById(principal.getId()).orElseThrow();
 
         var result = sanitizer.sanitize(
                 sanitizer.field("name").withOptionalValue(request.getName()).sanitize(value -> {
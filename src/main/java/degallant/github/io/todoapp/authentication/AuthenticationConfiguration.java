@@ -10,7 +10,13 @@ public record AuthenticationConfiguration(
         String signKey,
         String issuer,
         int accessExpiryMinutes,
-        int refreshExpiryMinutes
+        int refreshExpiryMinutes,
+        long verifiedCacheMaxSize,
+        int passwordThreads,
+        int passwordQueueSize,
+        String refreshStore,
+        long revocationSyncMillis,
+        boolean statelessPrincipal
 ) {
 
     public Instant accessExpiration() {
@@ -11,7 +11,6 @@ import degallant.github.io.todoapp.sanitization.InvalidValueException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.util.Collections;
@@ -28,8 +27,13 @@ public class AuthenticationService {
     private final UsersRepository repository;
     private final OpenIdTokenParser openIdTokenParser;
     private final JwtToken token;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
     private final ApiKeyRepository apiKeyRepository;
+    private final PrincipalCache principalCache;
+    private final RefreshTokenStore refreshTokenStore;
+    private final RevokedFamilies revokedFamilies;
+    private final AuthenticationConfiguration config;
+    private final TokenVersions tokenVersions;
 
     public OpenIdUser parseOpenIdOrThrow(String openIdToken) throws InvalidValueException {
         try {
@@ -40,9 +44,58 @@ public class AuthenticationService {
         }
     }
 
+    /**
+     * Starts a new family of tokens for the user.
+     */
     public TokenPair refresh(UserEntity user) {
-        String accessToken = token.makeAccessTokenFor(user);
-        String refreshToken = token.makeRefreshToken(user);
+        var family = UUID.randomUUID();
+        var tokenId = UUID.randomUUID();
+        refreshTokenStore.start(family, tokenId, config.refreshExpiration());
+        return makePair(user, family, tokenId);
+    }
+
+    /**
+     * Exchanges the refresh token for a new pair of the same family, the presented refresh token can't be used again.
+     * <p>
+     * If the refresh token was already exchanged before, someone else has a copy of it, so the whole family is revoked.
+     * Tokens made before families existed start a new family, each of them only once.
+     */
+    public TokenPair refresh(UserEntity user, JwtCredentials credentials) throws JwtTokenException {
+        var claims = credentials.claims();
+        if (claims.familyId() == null) {
+            var expiresAt = claims.expiresAt() != null ? claims.expiresAt() : config.refreshExpiration();
+            if (!refreshTokenStore.exchangeLegacy(token.digest(credentials.token()), expiresAt)) {
+                throw new JwtTokenException.Revoked(credentials.token());
+            }
+            return refresh(user);
+        }
+
+        if (!claims.isRefresh()) {
+            throw new JwtTokenException.NotRefresh(credentials.token());
+        }
+
+        var tokenId = UUID.randomUUID();
+        var revokedUntil = config.refreshExpiration();
+        if (!refreshTokenStore.rotate(claims.familyId(), claims.tokenId(), tokenId, config.refreshExpiration(), revokedUntil)) {
+            revokedFamilies.revoke(claims.familyId());
+            throw new JwtTokenException.Revoked(credentials.token());
+        }
+
+        return makePair(user, claims.familyId(), tokenId);
+    }
+
+    /**
+     * Revokes every token of the family the token belongs to.
+     */
+    public void revoke(JwtCredentials credentials) {
+        if (credentials.claims().familyId() != null) {
+            revokedFamilies.revoke(credentials.claims().familyId());
+        }
+    }
+
+    private TokenPair makePair(UserEntity user, UUID family, UUID refreshTokenId) {
+        String accessToken = token.makeAccessTokenFor(user, family);
+        String refreshToken = token.makeRefreshToken(user, family, refreshTokenId);
         return new TokenPair(accessToken, refreshToken);
     }
 
@@ -138,7 +191,7 @@ public class AuthenticationService {
             throw new InvalidStateException("error.email_not_found", email);
         }
 
-        if (!passwordEncoder.matches(password, user.get().getPassword())) {
+        if (!passwordHasher.matches(password, user.get().getPassword())) {
             throw new InvalidStateException("error.invalid_password");
         }
 
@@ -153,14 +206,42 @@ public class AuthenticationService {
     }
 
     public Authentication authenticateWithJwtToken(String jwtToken) throws JwtTokenException {
-        var userId = token.parseToUserId(jwtToken);
-        var user = repository.findByIdAndDeletedAtIsNull(userId);
+        var claims = token.parse(jwtToken);
+
+        if (claims.familyId() != null && revokedFamilies.isRevoked(claims.familyId())) {
+            throw new JwtTokenException.Revoked(jwtToken);
+        }
+
+        if (config.statelessPrincipal() && claims.hasPrincipal()) {
+            return authenticateWithClaims(jwtToken, claims);
+        }
+
+        var user = principalCache.find(claims.userId());
 
         if (user.isEmpty()) {
             throw new JwtTokenException.InvalidSubject(jwtToken);
         }
 
-        return new UsernamePasswordAuthenticationToken(user.get(), null, user.get().roles());
+        return new UsernamePasswordAuthenticationToken(user.get(), new JwtCredentials(jwtToken, claims), user.get().roles());
+    }
+
+    /**
+     * Trusts the role in the token instead of reading the user, as long as the user did not have its tokens revoked since.
+     * <p>
+     * The principal only has its id, role and token version, anything else has to be read from the database.
+     */
+    private Authentication authenticateWithClaims(String jwtToken, JwtToken.Claims claims) throws JwtTokenException {
+        if (tokenVersions.isOutdated(claims.userId(), claims.version())) {
+            throw new JwtTokenException.Revoked(jwtToken);
+        }
+
+        var user = UserEntity.builder()
+                .id(claims.userId())
+                .role(claims.role())
+                .tokenVersion(claims.version())
+                .build();
+
+        return new UsernamePasswordAuthenticationToken(user, new JwtCredentials(jwtToken, claims), user.roles());
     }
 
     public Authentication authenticateWithKeys(String rawApiId, String apiSecret) throws InvalidStateException {
@@ -179,7 +260,7 @@ public class AuthenticationService {
             throw new InvalidStateException("error.api_key_not_found", apiKeyId);
         }
 
-        if (!passwordEncoder.matches(apiSecret, keyEntity.get().getSecret())) {
+        if (!passwordHasher.matches(apiSecret, keyEntity.get().getSecret())) {
             throw new InvalidStateException("error.api_key_invalid_secret", apiKeyId);
         }
 
@@ -191,4 +272,11 @@ public class AuthenticationService {
 
     }
 
+    /**
+     * The credentials of a request authenticated with a jwt token.
+     */
+    public record JwtCredentials(String token, JwtToken.Claims claims) {
+
+    }
+
 }
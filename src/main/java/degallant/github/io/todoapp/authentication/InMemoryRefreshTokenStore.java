@@ -0,0 +1,64 @@
+package degallant.github.io.todoapp.authentication;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Stand-in for RedisRefreshTokenStore when there is a single instance, the families are lost on restart.
+ */
+public class InMemoryRefreshTokenStore implements RefreshTokenStore {
+
+    private final Map<UUID, Family> families = new ConcurrentHashMap<>();
+    private final Map<UUID, Instant> revoked = new ConcurrentHashMap<>();
+    private final Map<String, Instant> exchangedLegacy = new ConcurrentHashMap<>();
+
+    @Override
+    public void start(UUID family, UUID tokenId, Instant expiresAt) {
+        families.put(family, new Family(tokenId, expiresAt));
+    }
+
+    @Override
+    public boolean rotate(UUID family, UUID presented, UUID next, Instant expiresAt, Instant revokedUntil) {
+        var rotated = new AtomicBoolean();
+        families.compute(family, (key, current) -> {
+            var isCurrent = !revoked.containsKey(key) && (current == null || current.isExpired() || current.tokenId().equals(presented));
+            rotated.set(isCurrent);
+            return isCurrent ? new Family(next, expiresAt) : current;
+        });
+        if (!rotated.get()) {
+            revoke(family, revokedUntil);
+        }
+        return rotated.get();
+    }
+
+    @Override
+    public void revoke(UUID family, Instant revokedUntil) {
+        revoked.merge(family, revokedUntil, (old, fresh) -> fresh.isAfter(old) ? fresh : old);
+    }
+
+    @Override
+    public boolean exchangeLegacy(String digest, Instant expiresAt) {
+        return exchangedLegacy.putIfAbsent(digest, expiresAt) == null;
+    }
+
+    @Override
+    public Map<UUID, Instant> revoked() {
+        var now = Instant.now();
+        families.values().removeIf(Family::isExpired);
+        exchangedLegacy.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        revoked.values().removeIf(until -> !until.isAfter(now));
+        return Map.copyOf(revoked);
+    }
+
+    private record Family(UUID tokenId, Instant expiresAt) {
+
+        boolean isExpired() {
+            return !expiresAt.isAfter(Instant.now());
+        }
+
+    }
+
+}
@@ -7,22 +7,55 @@ import com.auth0.jwt.exceptions.IncorrectClaimException;
 import com.auth0.jwt.exceptions.JWTDecodeException;
 import com.auth0.jwt.exceptions.TokenExpiredException;
 import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import degallant.github.io.todoapp.domain.users.Role;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Instant;
+import java.util.HexFormat;
 import java.util.UUID;
 
+/**
+ * Makes and verifies the jwt tokens of the app.
+ * <p>
+ * Tokens that were already verified are kept by the sha-256 of their content until they expire,
+ * so a client sending the same token over and over pays for the HMAC verification only once.
+ * <p>
+ * The tokens handed out at each login share a family id (fid), and refresh tokens also have their own id (jti),
+ * so a family can be rotated and revoked by RefreshTokenStore.
+ * <p>
+ * Access tokens also carry the role and the token version of their user (role and ver),
+ * so the user can be trusted without being read when stateless_principal is enabled.
+ */
 @Component
 public class JwtToken {
 
+    private static final String FAMILY_CLAIM = "fid";
+    private static final String ROLE_CLAIM = "role";
+    private static final String VERSION_CLAIM = "ver";
+
     private final AuthenticationConfiguration config;
     private final Algorithm signature;
+    private final JWTVerifier verifier;
+    private final Cache<String, Claims> verified;
 
     public JwtToken(AuthenticationConfiguration config) {
         this.config = config;
         this.signature = Algorithm.HMAC256(config.signKey());
+        this.verifier = JWT.require(signature)
+                .withIssuer(config.issuer())
+                .build();
+        this.verified = Caffeine.newBuilder()
+                .maximumSize(config.verifiedCacheMaxSize())
+                .expireAfter(new UntilTokenExpires())
+                .build();
     }
 
     public Builder make() {
@@ -30,20 +63,42 @@ public class JwtToken {
     }
 
     public String makeAccessTokenFor(UserEntity entity) {
-        return make().withSubject(entity).asAccess().build();
+        return make().withSubject(entity).withPrincipal(entity).asAccess().build();
+    }
+
+    public String makeAccessTokenFor(UserEntity entity, UUID family) {
+        return make().withSubject(entity).withPrincipal(entity).withFamily(family).asAccess().build();
     }
 
-    public String makeRefreshToken(UserEntity entity) {
-        return make().withSubject(entity).asRefresh().build();
+    public String makeRefreshToken(UserEntity entity, UUID family, UUID id) {
+        return make().withSubject(entity).withFamily(family).withId(id).asRefresh().build();
     }
 
     public UUID parseToUserId(String token) throws JwtTokenException {
+        return parse(token).userId();
+    }
+
+    public Claims parse(String token) throws JwtTokenException {
+        var digest = digest(token);
+        var cached = verified.getIfPresent(digest);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now())) {
+            return cached;
+        }
+
         try {
-            JWTVerifier verifier = JWT.require(signature)
-                    .withIssuer(config.issuer())
-                    .build();
             DecodedJWT decodedJWT = verifier.verify(token);
-            return UUID.fromString(decodedJWT.getSubject());
+            var claims = new Claims(
+                    UUID.fromString(decodedJWT.getSubject()),
+                    parseId(decodedJWT.getClaim(FAMILY_CLAIM).asString(), token),
+                    parseId(decodedJWT.getId(), token),
+                    parseRole(decodedJWT.getClaim(ROLE_CLAIM).asString(), token),
+                    decodedJWT.getClaim(VERSION_CLAIM).asInt(),
+                    decodedJWT.getExpiresAtAsInstant()
+            );
+            if (claims.expiresAt() != null) {
+                verified.put(digest, claims);
+            }
+            return claims;
         } catch (TokenExpiredException exception) {
             throw new JwtTokenException.Expired(exception, token);
         } catch (JWTDecodeException exception) {
@@ -55,6 +110,69 @@ public class JwtToken {
         }
     }
 
+    private UUID parseId(String value, String token) {
+        try {
+            return value == null ? null : UUID.fromString(value);
+        } catch (IllegalArgumentException exception) {
+            throw new JwtTokenException.Invalid(exception, token);
+        }
+    }
+
+    private Role parseRole(String value, String token) {
+        try {
+            return value == null ? null : Role.valueOf(value);
+        } catch (IllegalArgumentException exception) {
+            throw new JwtTokenException.Invalid(exception, token);
+        }
+    }
+
+    String digest(String token) {
+        try {
+            var digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    /**
+     * @param familyId the family of the token, null for tokens made before families existed
+     * @param tokenId  the id of a refresh token, null for access tokens
+     * @param role     the role of the user, null for refresh tokens and tokens made before it was added
+     * @param version  the token version of the user, null when role is null
+     */
+    public record Claims(UUID userId, UUID familyId, UUID tokenId, Role role, Integer version, Instant expiresAt) {
+
+        public boolean isRefresh() {
+            return tokenId != null;
+        }
+
+        public boolean hasPrincipal() {
+            return role != null && version != null;
+        }
+
+    }
+
+    private static class UntilTokenExpires implements Expiry<String, Claims> {
+
+        @Override
+        public long expireAfterCreate(String key, Claims value, long currentTime) {
+            var millis = value.expiresAt().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, millis) * 1_000_000;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Claims value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Claims value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
     @RequiredArgsConstructor
     public static class Builder {
 
@@ -63,6 +181,10 @@ public class JwtToken {
         private String issuer;
         private String subject;
         private Instant expiresAt;
+        private UUID family;
+        private UUID id;
+        private Role role;
+        private Integer version;
 
         public Builder withIssuer(String issuer) {
             this.issuer = issuer;
@@ -83,6 +205,22 @@ public class JwtToken {
             return this;
         }
 
+        public Builder withPrincipal(UserEntity entity) {
+            this.role = entity.getRole();
+            this.version = entity.getTokenVersion();
+            return this;
+        }
+
+        public Builder withFamily(UUID family) {
+            this.family = family;
+            return this;
+        }
+
+        public Builder withId(UUID id) {
+            this.id = id;
+            return this;
+        }
+
         public Builder asAccess() {
             this.expiresAt = config.accessExpiration();
             return this;
@@ -108,6 +246,16 @@ public class JwtToken {
             jwt.withIssuer(issuer == null || issuer.isEmpty() ? config.issuer() : issuer);
             jwt.withSubject(subject);
             jwt.withExpiresAt(expiresAt == null ? config.accessExpiration() : expiresAt);
+            if (family != null) {
+                jwt.withClaim(FAMILY_CLAIM, family.toString());
+            }
+            if (id != null) {
+                jwt.withJWTId(id.toString());
+            }
+            if (role != null && version != null) {
+                jwt.withClaim(ROLE_CLAIM, role.name());
+                jwt.withClaim(VERSION_CLAIM, version);
+            }
             return jwt.sign(signature);
 
         }
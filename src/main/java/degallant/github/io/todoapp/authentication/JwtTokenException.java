@@ -47,4 +47,17 @@ public class JwtTokenException extends RuntimeException {
             super(cause, token);
         }
     }
+
+    public static class Revoked extends JwtTokenException {
+        public Revoked(String token) {
+            super(token);
+        }
+    }
+
+    public static class NotRefresh extends JwtTokenException {
+        public NotRefresh(String token) {
+            super(token);
+        }
+    }
+
 }
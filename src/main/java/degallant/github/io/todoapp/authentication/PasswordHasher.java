@@ -0,0 +1,88 @@
+package degallant.github.io.todoapp.authentication;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Checks passwords on its own small pool of threads.
+ * <p>
+ * BCrypt is slow on purpose, so a burst of logins checked on the request threads could take all of them
+ * and leave nothing to serve the other requests. Here at most password_threads hashes run at once
+ * and at most password_queue_size wait for their turn, a password beyond that is rejected right away
+ * with PasswordHashingRejectedException instead of holding yet another request thread.
+ */
+@Component
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Timer queueTimer;
+    private final Timer hashTimer;
+    private final Counter rejectedCounter;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder, AuthenticationConfiguration config, MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+        var threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.passwordThreads(),
+                config.passwordThreads(),
+                0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.passwordQueueSize()),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hasher-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy()
+        );
+        this.queueTimer = Timer.builder("auth.password.queue_wait").register(meterRegistry);
+        this.hashTimer = Timer.builder("auth.password.hash").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("auth.password.rejected").register(meterRegistry);
+        Gauge.builder("auth.password.queued", executor, pool -> pool.getQueue().size()).register(meterRegistry);
+    }
+
+    /**
+     * Same as PasswordEncoder.matches, but waits for a free hashing thread.
+     *
+     * @throws PasswordHashingRejectedException when the queue is full
+     */
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        var queuedAt = System.nanoTime();
+        try {
+            var future = executor.submit(() -> {
+                queueTimer.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                return hashTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword));
+            });
+            return future.get();
+        } catch (RejectedExecutionException exception) {
+            rejectedCounter.increment();
+            throw new PasswordHashingRejectedException(exception);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(exception);
+        } catch (ExecutionException exception) {
+            if (exception.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+}
@@ -0,0 +1,12 @@
+package degallant.github.io.todoapp.authentication;
+
+/**
+ * Thrown when there are already too many passwords waiting to be checked.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(Throwable cause) {
+        super("Too many passwords waiting to be checked", cause);
+    }
+
+}
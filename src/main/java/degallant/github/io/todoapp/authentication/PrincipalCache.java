@@ -0,0 +1,65 @@
+package degallant.github.io.todoapp.authentication;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import degallant.github.io.todoapp.cache.CacheConfiguration;
+import degallant.github.io.todoapp.cache.CacheInvalidationBus;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.domain.users.UsersRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Keeps the users that authenticate with a jwt token in memory, so an authenticated request
+ * does not need to read its user from the database before reaching the controller.
+ * <p>
+ * Only active users are cached. Users are evicted whenever they are saved (e.g. deleted, restored or promoted),
+ * and the eviction is broadcast to the other instances. If that message is lost, the user still expires after principal_ttl_seconds.
+ * <p>
+ * The cached users are detached and shared between requests, so they should not be changed in place without being saved.
+ */
+@Component
+public class PrincipalCache {
+
+    public static final String CACHE_NAME = "principals";
+
+    private final UsersRepository repository;
+    private final CacheInvalidationBus bus;
+    private final Cache<UUID, UserEntity> users;
+
+    public PrincipalCache(UsersRepository repository, CacheInvalidationBus bus, CacheConfiguration configuration, MeterRegistry meterRegistry) {
+        this.repository = repository;
+        this.bus = bus;
+        this.users = Caffeine.newBuilder()
+                .maximumSize(configuration.principalMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(configuration.principalTtlSeconds()))
+                .recordStats()
+                .build();
+
+        bus.onInvalidation(invalidation -> {
+            if (CACHE_NAME.equals(invalidation.cacheName()) && invalidation.key() != null) {
+                users.invalidate(UUID.fromString(invalidation.key()));
+            }
+        });
+
+        CaffeineCacheMetrics.monitor(meterRegistry, users, CACHE_NAME);
+    }
+
+    /**
+     * @return the user with the given id, or empty if there is no such user or it was deleted
+     */
+    public Optional<UserEntity> find(UUID id) {
+        return Optional.ofNullable(users.get(id, key -> repository.findByIdAndDeletedAtIsNull(key).orElse(null)));
+    }
+
+    public void evict(UUID id) {
+        users.invalidate(id);
+        bus.publish(CACHE_NAME, id.toString());
+    }
+
+}
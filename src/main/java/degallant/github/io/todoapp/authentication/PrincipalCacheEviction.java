@@ -0,0 +1,27 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.cache.AfterCommit;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Evicts a user from the PrincipalCache whenever it is updated or removed,
+ * so a deleted or promoted user is seen as such by its next request.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@RequiredArgsConstructor
+public class PrincipalCacheEviction {
+
+    private final ObjectProvider<PrincipalCache> cache;
+
+    @PostUpdate
+    @PostRemove
+    public void evict(UserEntity user) {
+        AfterCommit.evict(() -> cache.getObject().evict(user.getId()));
+    }
+
+}
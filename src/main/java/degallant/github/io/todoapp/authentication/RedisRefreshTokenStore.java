@@ -0,0 +1,99 @@
+package degallant.github.io.todoapp.authentication;
+
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the current refresh token of each family under refresh:family:{id} until it expires,
+ * and the revoked families in the sorted set refresh:revoked, scored by when they stop being revoked.
+ * Tokens made before families existed are kept under refresh:legacy:{digest} once exchanged, until they expire.
+ * <p>
+ * The rotation runs as a script, so two requests presenting the same refresh token can't both rotate it.
+ */
+public class RedisRefreshTokenStore implements RefreshTokenStore {
+
+    private static final String REVOKED_KEY = "refresh:revoked";
+    private static final String REVOKED_VALUE = "revoked";
+
+    /**
+     * A family that is gone (expired or lost) starts over with the presented token, as if it was a new login.
+     */
+    private static final RedisScript<Long> ROTATE = new DefaultRedisScript<>("""
+            local current = redis.call('GET', KEYS[1])
+            if current == false or current == ARGV[1] then
+                redis.call('SET', KEYS[1], ARGV[2], 'PX', ARGV[3])
+                return 1
+            end
+            redis.call('SET', KEYS[1], ARGV[4], 'PX', ARGV[5])
+            redis.call('ZADD', KEYS[2], ARGV[6], ARGV[7])
+            return 0
+            """, Long.class);
+
+    private final StringRedisTemplate redis;
+
+    public RedisRefreshTokenStore(StringRedisTemplate redis) {
+        this.redis = redis;
+    }
+
+    @Override
+    public void start(UUID family, UUID tokenId, Instant expiresAt) {
+        redis.opsForValue().set(key(family), tokenId.toString(), timeUntil(expiresAt));
+    }
+
+    @Override
+    public boolean rotate(UUID family, UUID presented, UUID next, Instant expiresAt, Instant revokedUntil) {
+        var result = redis.execute(ROTATE, List.of(key(family), REVOKED_KEY),
+                presented.toString(),
+                next.toString(),
+                String.valueOf(timeUntil(expiresAt).toMillis()),
+                REVOKED_VALUE,
+                String.valueOf(timeUntil(revokedUntil).toMillis()),
+                String.valueOf(revokedUntil.toEpochMilli()),
+                family.toString()
+        );
+        return result != null && result == 1;
+    }
+
+    @Override
+    public void revoke(UUID family, Instant revokedUntil) {
+        redis.opsForValue().set(key(family), REVOKED_VALUE, timeUntil(revokedUntil));
+        redis.opsForZSet().add(REVOKED_KEY, family.toString(), revokedUntil.toEpochMilli());
+    }
+
+    @Override
+    public boolean exchangeLegacy(String digest, Instant expiresAt) {
+        return Boolean.TRUE.equals(redis.opsForValue().setIfAbsent("refresh:legacy:" + digest, "exchanged", timeUntil(expiresAt)));
+    }
+
+    @Override
+    public Map<UUID, Instant> revoked() {
+        redis.opsForZSet().removeRangeByScore(REVOKED_KEY, 0, System.currentTimeMillis());
+        var entries = redis.opsForZSet().rangeWithScores(REVOKED_KEY, 0, -1);
+        var revoked = new HashMap<UUID, Instant>();
+        if (entries != null) {
+            for (var entry : entries) {
+                if (entry.getValue() != null && entry.getScore() != null) {
+                    revoked.put(UUID.fromString(entry.getValue()), Instant.ofEpochMilli(entry.getScore().longValue()));
+                }
+            }
+        }
+        return revoked;
+    }
+
+    private String key(UUID family) {
+        return "refresh:family:" + family;
+    }
+
+    private Duration timeUntil(Instant instant) {
+        return Duration.ofMillis(Math.max(1, instant.toEpochMilli() - System.currentTimeMillis()));
+    }
+
+}
@@ -0,0 +1,44 @@
+package degallant.github.io.todoapp.authentication;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Keeps the current refresh token of each family of tokens.
+ * <p>
+ * A family starts at each login and only its latest refresh token can be exchanged for a new pair.
+ * When an older refresh token of the family shows up again, it was either stolen or replayed,
+ * so the whole family is revoked, including the access tokens it handed out.
+ */
+public interface RefreshTokenStore {
+
+    /**
+     * Starts a new family whose current refresh token is tokenId.
+     */
+    void start(UUID family, UUID tokenId, Instant expiresAt);
+
+    /**
+     * Replaces the current refresh token of the family by next, as long as presented is the current one.
+     * Otherwise, the family is revoked until revokedUntil.
+     *
+     * @return false if presented was not the current refresh token of the family
+     */
+    boolean rotate(UUID family, UUID presented, UUID next, Instant expiresAt, Instant revokedUntil);
+
+    void revoke(UUID family, Instant revokedUntil);
+
+    /**
+     * Marks a token made before families existed as exchanged, until it expires.
+     *
+     * @param digest the SHA-256 digest of the token
+     * @return false if the token was already exchanged before
+     */
+    boolean exchangeLegacy(String digest, Instant expiresAt);
+
+    /**
+     * @return the revoked families that have not expired yet, and until when they are revoked
+     */
+    Map<UUID, Instant> revoked();
+
+}
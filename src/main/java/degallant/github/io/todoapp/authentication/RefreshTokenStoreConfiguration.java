@@ -0,0 +1,22 @@
+package degallant.github.io.todoapp.authentication;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * The refresh token families are kept in redis, so they are shared by all instances,
+ * unless refresh_store is memory, which only makes sense with a single instance.
+ */
+@Configuration
+public class RefreshTokenStoreConfiguration {
+
+    @Bean
+    public RefreshTokenStore refreshTokenStore(AuthenticationConfiguration config, StringRedisTemplate redis) {
+        if ("memory".equalsIgnoreCase(config.refreshStore())) {
+            return new InMemoryRefreshTokenStore();
+        }
+        return new RedisRefreshTokenStore(redis);
+    }
+
+}
@@ -0,0 +1,150 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Answers if a family of tokens was revoked without leaving the instance, since it is asked on every authenticated request.
+ * <p>
+ * The revoked families are kept in a bloom filter in front of an exact map. Almost every token belongs to a family
+ * that was never revoked, and for those the filter answers with a few bit reads. A family that the filter
+ * might contain is then looked up in the map, so a false positive never rejects a token.
+ * <p>
+ * A revocation made by this instance is seen right away and is broadcast to the others through the cache invalidation bus.
+ * Every revocation_sync_millis the families are reloaded from the store, which catches up on lost messages
+ * and drops the families that no longer have a token that could be valid.
+ */
+@Slf4j
+@Component
+public class RevokedFamilies {
+
+    public static final String CACHE_NAME = "revoked_families";
+
+    private static final int BITS = 1 << 16;
+    private static final int HASHES = 3;
+
+    private final RefreshTokenStore store;
+    private final CacheInvalidationBus bus;
+    private final AuthenticationConfiguration config;
+    private volatile Filter filter = new Filter(Map.of());
+
+    public RevokedFamilies(RefreshTokenStore store, CacheInvalidationBus bus, AuthenticationConfiguration config, MeterRegistry meterRegistry) {
+        this.store = store;
+        this.bus = bus;
+        this.config = config;
+
+        bus.onInvalidation(invalidation -> {
+            if (CACHE_NAME.equals(invalidation.cacheName()) && invalidation.key() != null) {
+                add(UUID.fromString(invalidation.key()), config.refreshExpiration());
+            }
+        });
+
+        Gauge.builder("auth.revoked_families", this, families -> families.filter.exact.size()).register(meterRegistry);
+    }
+
+    public boolean isRevoked(UUID family) {
+        var current = filter;
+        if (!current.mightContain(family)) {
+            return false;
+        }
+        var until = current.exact.get(family);
+        return until != null && until.isAfter(Instant.now());
+    }
+
+    /**
+     * Revokes the family in the store, locally and on the other instances.
+     */
+    public void revoke(UUID family) {
+        var until = config.refreshExpiration();
+        store.revoke(family, until);
+        add(family, until);
+        bus.publish(CACHE_NAME, family.toString());
+    }
+
+    /**
+     * Marks the family as revoked locally, for a family already revoked in the store.
+     */
+    public synchronized void add(UUID family, Instant until) {
+        filter.add(family, until);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.auth.revocation_sync_millis}")
+    public void sync() {
+        try {
+            var revoked = store.revoked();
+            //a revocation added while the store was being read would be lost by the swap, so it is carried over
+            synchronized (this) {
+                var now = Instant.now();
+                var fresh = new Filter(revoked);
+                filter.exact.forEach((family, until) -> {
+                    if (until.isAfter(now) && !revoked.containsKey(family)) {
+                        fresh.add(family, until);
+                    }
+                });
+                filter = fresh;
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Failed to load the revoked token families, keeping the current ones", exception);
+        }
+    }
+
+    private static class Filter {
+
+        private final AtomicLongArray bits = new AtomicLongArray(BITS / 64);
+        private final Map<UUID, Instant> exact = new ConcurrentHashMap<>();
+
+        Filter(Map<UUID, Instant> revoked) {
+            revoked.forEach(this::add);
+        }
+
+        void add(UUID family, Instant until) {
+            exact.merge(family, until, (old, fresh) -> fresh.isAfter(old) ? fresh : old);
+            var first = mix(family.getLeastSignificantBits());
+            var second = mix(family.getMostSignificantBits());
+            for (int index = 0; index < HASHES; index++) {
+                var bit = (int) ((first + index * second) & (BITS - 1));
+                var word = bit >>> 6;
+                var mask = 1L << (bit & 63);
+                bits.getAndUpdate(word, value -> value | mask);
+            }
+        }
+
+        boolean mightContain(UUID family) {
+            var first = mix(family.getLeastSignificantBits());
+            var second = mix(family.getMostSignificantBits());
+            for (int index = 0; index < HASHES; index++) {
+                var bit = (int) ((first + index * second) & (BITS - 1));
+                if ((bits.get(bit >>> 6) & (1L << (bit & 63))) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * The finalizer of murmur3, random ids already have well spread bits, but ids are not always random.
+         */
+        private static long mix(long value) {
+            value ^= value >>> 33;
+            value *= 0xff51afd7ed558ccdL;
+            value ^= value >>> 33;
+            value *= 0xc4ceb9fe1a85ec53L;
+            value ^= value >>> 33;
+            return value;
+        }
+
+    }
+
+}
@@ -0,0 +1,28 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.cache.AfterCommit;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.ObjectProvider;
+
+/**
+ * Tells TokenVersions about a user whose tokens were revoked, once the change is committed.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@RequiredArgsConstructor
+public class TokenVersionListener {
+
+    private final ObjectProvider<TokenVersions> versions;
+
+    @PostUpdate
+    public void record(UserEntity user) {
+        if (user.getTokenVersion() > 0) {
+            var id = user.getId();
+            var version = user.getTokenVersion();
+            AfterCommit.run(() -> versions.getObject().publish(id, version));
+        }
+    }
+
+}
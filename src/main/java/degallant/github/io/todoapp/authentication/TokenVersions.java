@@ -0,0 +1,106 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the token version of the users whose tokens were revoked recently, so an access token can be trusted
+ * without reading its user.
+ * <p>
+ * A user only needs to be kept for as long as an access token made before its version changed could still be valid,
+ * so the map only holds the users updated within the last access_expiry_minutes that ever had their tokens revoked.
+ * <p>
+ * A change made by this instance is seen once committed and is broadcast to the others through the cache invalidation bus.
+ * Every revocation_sync_millis the map is reloaded from the database, which catches up on lost messages and drops old users.
+ */
+@Slf4j
+@Component
+public class TokenVersions {
+
+    public static final String CACHE_NAME = "token_versions";
+
+    private static final String SELECT_REVOKED = "SELECT id, token_version, updated_at FROM users WHERE token_version > 0 AND updated_at > ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidationBus bus;
+    private final AuthenticationConfiguration config;
+    private volatile Map<UUID, Version> versions = new ConcurrentHashMap<>();
+
+    public TokenVersions(JdbcTemplate jdbcTemplate, CacheInvalidationBus bus, AuthenticationConfiguration config, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.bus = bus;
+        this.config = config;
+
+        bus.onInvalidation(invalidation -> {
+            if (CACHE_NAME.equals(invalidation.cacheName()) && invalidation.key() != null) {
+                var parts = invalidation.key().split(":");
+                add(UUID.fromString(parts[0]), Integer.parseInt(parts[1]), Instant.now());
+            }
+        });
+
+        Gauge.builder("auth.token_versions", this, tokenVersions -> tokenVersions.versions.size()).register(meterRegistry);
+    }
+
+    /**
+     * @return true if tokens of the given version were revoked for the user
+     */
+    public boolean isOutdated(UUID userId, int version) {
+        var current = versions.get(userId);
+        return current != null && version < current.value();
+    }
+
+    /**
+     * Records the version locally and on the other instances.
+     */
+    public void publish(UUID userId, int version) {
+        add(userId, version, Instant.now());
+        bus.publish(CACHE_NAME, userId + ":" + version);
+    }
+
+    public synchronized void add(UUID userId, int version, Instant changedAt) {
+        versions.merge(userId, new Version(version, changedAt), (old, fresh) -> fresh.value() > old.value() ? fresh : old);
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${app.auth.revocation_sync_millis}")
+    public void sync() {
+        try {
+            var since = Instant.now().minus(config.accessExpiryMinutes(), ChronoUnit.MINUTES);
+            var loaded = new HashMap<UUID, Version>();
+            jdbcTemplate.query(SELECT_REVOKED, row -> {
+                loaded.put(row.getObject("id", UUID.class), new Version(row.getInt("token_version"), row.getTimestamp("updated_at").toInstant()));
+            }, Timestamp.from(since));
+
+            //a version added while the database was being read would be lost by the swap, so the recent ones are carried over
+            synchronized (this) {
+                var fresh = new ConcurrentHashMap<>(loaded);
+                versions.forEach((userId, version) -> {
+                    if (version.changedAt().isAfter(since)) {
+                        fresh.merge(userId, version, (old, current) -> current.value() > old.value() ? current : old);
+                    }
+                });
+                versions = fresh;
+            }
+        } catch (RuntimeException exception) {
+            log.warn("Failed to load the token versions, keeping the current ones", exception);
+        }
+    }
+
+    private record Version(int value, Instant changedAt) {
+    }
+
+}
@@ -0,0 +1,47 @@
+package degallant.github.io.todoapp.cache;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Runs an eviction right away and once more after the current transaction commits.
+ * <p>
+ * Entity listeners run before the commit, so a request on another thread could still read the
+ * old row and cache it again in between, the second eviction removes that stale copy.
+ * <p>
+ * Work that must not be seen before the commit, because the transaction could still roll back, goes through run instead.
+ */
+public class AfterCommit {
+
+    private AfterCommit() {
+    }
+
+    public static void evict(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * Runs the task once the current transaction commits, or right away when there is no transaction.
+     */
+    public static void run(Runnable task) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            task.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                task.run();
+            }
+        });
+    }
+
+}
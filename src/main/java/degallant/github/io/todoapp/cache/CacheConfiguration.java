@@ -0,0 +1,14 @@
+package degallant.github.io.todoapp.cache;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.cache")
+public record CacheConfiguration(
+        long generationRefreshMillis,
+        boolean gzip,
+        long nearMaxSize,
+        long nearTtlSeconds,
+        long principalMaxSize,
+        long principalTtlSeconds
+) {
+}
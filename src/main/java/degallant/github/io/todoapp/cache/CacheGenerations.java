@@ -0,0 +1,93 @@
+package degallant.github.io.todoapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Keeps a generation number for a cache that is folded into its keys.
+ * <p>
+ * Instead of clearing every entry of a cache after a write, we increment its generation,
+ * so new reads look for keys that do not exist yet and the old entries expire by their TTL.
+ * <p>
+ * The counter lives in redis, so all instances share it, and a local copy is kept for
+ * generation_refresh_millis to avoid a round trip to redis on every read. An instance that
+ * bumps a generation sees it right away, the others see it once their local copy is refreshed.
+ * <p>
+ * Counters do not expire, otherwise a reset counter could hit entries of an old generation.
+ * Local copies that were not read for longer than generation_refresh_millis are dropped, since they would be read again anyway.
+ */
+@Component
+public class CacheGenerations {
+
+    private final StringRedisTemplate redis;
+    private final ReactiveStringRedisTemplate reactiveRedis;
+    private final CacheConfiguration configuration;
+    private final ConcurrentMap<String, Generation> generations;
+
+    public CacheGenerations(StringRedisTemplate redis, ReactiveStringRedisTemplate reactiveRedis, CacheConfiguration configuration) {
+        this.redis = redis;
+        this.reactiveRedis = reactiveRedis;
+        this.configuration = configuration;
+        this.generations = Caffeine.newBuilder()
+                .expireAfterAccess(Duration.ofMillis(configuration.generationRefreshMillis()))
+                .<String, Generation>build()
+                .asMap();
+    }
+
+    public long current(String cacheName) {
+        var now = System.currentTimeMillis();
+        var generation = generations.get(cacheName);
+
+        if (generation != null && now - generation.fetchedAt() < configuration.generationRefreshMillis()) {
+            return generation.value();
+        }
+
+        return remember(cacheName, redis.opsForValue().get(key(cacheName)), now);
+    }
+
+    /**
+     * Same as current, but when the local copy is stale it is read again from redis without blocking the calling thread.
+     */
+    public Mono<Long> currentReactive(String cacheName) {
+        var now = System.currentTimeMillis();
+        var generation = generations.get(cacheName);
+
+        if (generation != null && now - generation.fetchedAt() < configuration.generationRefreshMillis()) {
+            return Mono.just(generation.value());
+        }
+
+        return reactiveRedis.opsForValue().get(key(cacheName))
+                .map(stored -> remember(cacheName, stored, now))
+                .switchIfEmpty(Mono.fromSupplier(() -> remember(cacheName, null, now)));
+    }
+
+    public void bump(String cacheName) {
+        var value = redis.opsForValue().increment(key(cacheName));
+        keepNewest(cacheName, new Generation(value != null ? value : 0, System.currentTimeMillis()));
+    }
+
+    private long remember(String cacheName, String stored, long fetchedAt) {
+        return keepNewest(cacheName, new Generation(stored != null ? Long.parseLong(stored) : 0, fetchedAt));
+    }
+
+    /**
+     * Concurrent reads and bumps may finish in any order, never go back to an older generation.
+     */
+    private long keepNewest(String cacheName, Generation fetched) {
+        return generations.merge(cacheName, fetched, (old, fresh) -> fresh.value() >= old.value() ? fresh : old).value();
+    }
+
+    private String key(String cacheName) {
+        return cacheName + ":generation";
+    }
+
+    private record Generation(long value, long fetchedAt) {
+    }
+
+}
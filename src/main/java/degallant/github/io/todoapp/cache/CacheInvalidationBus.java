@@ -0,0 +1,69 @@
+package degallant.github.io.todoapp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts cache invalidations to the other instances through redis pub/sub.
+ * <p>
+ * Each instance has its own node id, so it can ignore the invalidations it sent itself.
+ */
+@Slf4j
+public class CacheInvalidationBus implements MessageListener {
+
+    public static final String CHANNEL = "cache:invalidations";
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final StringRedisTemplate redis;
+    private final ObjectMapper mapper;
+    private final List<Consumer<Invalidation>> listeners = new CopyOnWriteArrayList<>();
+
+    public CacheInvalidationBus(StringRedisTemplate redis, ObjectMapper mapper) {
+        this.redis = redis;
+        this.mapper = mapper;
+    }
+
+    public void onInvalidation(Consumer<Invalidation> listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * @param key the key to evict, or null to clear the whole cache
+     */
+    public void publish(String cacheName, String key) {
+        try {
+            redis.convertAndSend(CHANNEL, mapper.writeValueAsString(new Invalidation(nodeId, cacheName, key)));
+        } catch (JsonProcessingException exception) {
+            throw new RuntimeException(exception);
+        } catch (RuntimeException exception) {
+            //the entries on other nodes still expire by their ttl, so a lost message is not worth failing the request
+            log.warn("Failed to publish invalidation of cache {}", cacheName, exception);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            var invalidation = mapper.readValue(message.getBody(), Invalidation.class);
+            if (!nodeId.equals(invalidation.nodeId())) {
+                listeners.forEach(listener -> listener.accept(invalidation));
+            }
+        } catch (IOException exception) {
+            log.warn("Ignoring malformed cache invalidation", exception);
+        }
+    }
+
+    public record Invalidation(String nodeId, String cacheName, String key) {
+    }
+
+}
@@ -0,0 +1,101 @@
+package degallant.github.io.todoapp.cache;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A serialized response body as it is stored in the cache.
+ * <p>
+ * When gzip is enabled the compressed body is kept as well, so clients that accept
+ * gzip get the stored bytes without compressing them on every request.
+ */
+public record CachedResponse(byte[] body, byte[] gzipped) implements Serializable {
+
+    public static final MediaType HAL_JSON = MediaType.valueOf("application/hal+json");
+
+    public static CachedResponse of(byte[] body, boolean gzip) {
+        return new CachedResponse(body, gzip ? gzip(body) : null);
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity(String acceptEncoding) {
+        return toResponseEntity(acceptEncoding, HttpHeaders.EMPTY);
+    }
+
+    /**
+     * @param headers added to the response, such as the ETag, that a ServletWebRequest would otherwise have set
+     */
+    public ResponseEntity<byte[]> toResponseEntity(String acceptEncoding, HttpHeaders headers) {
+        var builder = ResponseEntity.ok().contentType(HAL_JSON).headers(headers);
+
+        if (gzipped == null) {
+            return builder.body(body);
+        }
+
+        builder.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptsGzip(acceptEncoding)) {
+            return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzipped);
+        }
+
+        return builder.body(body);
+    }
+
+    /**
+     * Whether the Accept-Encoding header (e.g. "br, gzip;q=0.8, *;q=0.1") lets the client receive gzip,
+     * an explicit gzip entry wins over *, and entries with q=0 refuse their coding.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+
+        Double gzip = null;
+        Double any = null;
+
+        for (String entry : acceptEncoding.split(",")) {
+            var parts = entry.split(";");
+            var coding = parts[0].trim().toLowerCase(Locale.ROOT);
+            var quality = quality(parts);
+            if (coding.equals("gzip")) {
+                gzip = quality;
+            } else if (coding.equals("*")) {
+                any = quality;
+            }
+        }
+
+        return gzip != null ? gzip > 0 : any != null && any > 0;
+    }
+
+    private static double quality(String[] parts) {
+        for (int index = 1; index < parts.length; index++) {
+            var parameter = parts[index].trim();
+            if (parameter.startsWith("q=")) {
+                try {
+                    return Double.parseDouble(parameter.substring(2).trim());
+                } catch (NumberFormatException exception) {
+                    return 0;
+                }
+            }
+        }
+        return 1;
+    }
+
+    private static byte[] gzip(byte[] body) {
+        var output = new ByteArrayOutputStream(body.length / 4);
+        try (var gzip = new GZIPOutputStream(output)) {
+            gzip.write(body);
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+        return output.toByteArray();
+    }
+
+}
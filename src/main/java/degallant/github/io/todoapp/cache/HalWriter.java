@@ -0,0 +1,40 @@
+package degallant.github.io.todoapp.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.hateoas.mediatype.MessageResolver;
+import org.springframework.hateoas.mediatype.hal.CurieProvider;
+import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
+import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
+import org.springframework.hateoas.server.core.DelegatingLinkRelationProvider;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes HAL models to compact UTF-8 bytes, ready to be cached and sent as they are.
+ * <p>
+ * The writer is built once from a copy of the application mapper, so the shared mapper is never modified.
+ */
+@Component
+public class HalWriter {
+
+    private final ObjectWriter writer;
+
+    public HalWriter(ObjectMapper mapper) {
+        var provider = new DelegatingLinkRelationProvider(new AnnotationLinkRelationProvider());
+        var instantiator = new Jackson2HalModule.HalHandlerInstantiator(provider, CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY);
+        var halMapper = mapper.copy().registerModule(new Jackson2HalModule());
+        halMapper.setHandlerInstantiator(instantiator);
+        this.writer = halMapper.writer().without(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    public byte[] write(Object model) {
+        try {
+            return writer.writeValueAsBytes(model);
+        } catch (JsonProcessingException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+}
@@ -0,0 +1,147 @@
+package degallant.github.io.todoapp.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.concurrent.Callable;
+
+/**
+ * A cache that looks for entries in memory before going to the remote cache.
+ * <p>
+ * Writes go to both layers and are broadcast, so other instances drop their in-memory copy of the entry.
+ * Callers whose keys carry the generation of their cache can skip the broadcast with putWithoutBroadcast.
+ */
+public class NearCache implements Cache {
+
+    private final String name;
+    private final Cache remote;
+    private final NearCacheManager manager;
+
+    NearCache(String name, Cache remote, NearCacheManager manager) {
+        this.name = name;
+        this.remote = remote;
+        this.manager = manager;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        var nearKey = nearKey(key);
+        var value = manager.getNear(nearKey);
+
+        if (value != null) {
+            return value;
+        }
+
+        value = remote.get(key);
+        manager.recordRemote(value != null);
+
+        if (value != null) {
+            manager.putNear(nearKey, new SimpleValueWrapper(value.get()));
+        }
+
+        return value;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        var value = get(key);
+        if (value == null) {
+            return null;
+        }
+        var object = value.get();
+        if (object != null && type != null && !type.isInstance(object)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + object);
+        }
+        return (T) object;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        var value = get(key);
+        if (value != null) {
+            return (T) value.get();
+        }
+        try {
+            var loaded = valueLoader.call();
+            put(key, loaded);
+            return loaded;
+        } catch (Exception exception) {
+            throw new ValueRetrievalException(key, valueLoader, exception);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        manager.putNear(nearKey(key), new SimpleValueWrapper(value));
+        manager.broadcast(name, key.toString());
+    }
+
+    /**
+     * Same as put, but other instances are not told to drop their in-memory copy of the entry.
+     * <p>
+     * Only for keys that no other instance can hold a different value of, such as keys that carry
+     * the generation of their cache, otherwise other instances keep serving the old value until it expires.
+     */
+    public void putWithoutBroadcast(Object key, Object value) {
+        remote.put(key, value);
+        manager.putNear(nearKey(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        var existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            manager.putNear(nearKey(key), new SimpleValueWrapper(value));
+            manager.broadcast(name, key.toString());
+        }
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        manager.evictNear(nearKey(key));
+        manager.broadcast(name, key.toString());
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        var evicted = remote.evictIfPresent(key);
+        manager.evictNear(nearKey(key));
+        manager.broadcast(name, key.toString());
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        manager.clearNear(name);
+        manager.broadcast(name, null);
+    }
+
+    @Override
+    public boolean invalidate() {
+        var invalidated = remote.invalidate();
+        manager.clearNear(name);
+        manager.broadcast(name, null);
+        return invalidated;
+    }
+
+    private NearCacheManager.NearKey nearKey(Object key) {
+        return new NearCacheManager.NearKey(name, key.toString());
+    }
+
+}
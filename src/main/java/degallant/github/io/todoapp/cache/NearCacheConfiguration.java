@@ -0,0 +1,73 @@
+package degallant.github.io.todoapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+/**
+ * Since we declare our own cache manager, spring boot no longer creates the redis one,
+ * so we create it here from the same spring.cache.redis properties.
+ * <p>
+ * The redis cache configuration is a bean of its own, so the reactive reads can read and write
+ * the same entries with the same keys and serialization.
+ */
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class NearCacheConfiguration {
+
+    @Bean
+    public RedisCacheConfiguration redisCacheConfiguration(CacheProperties properties) {
+        var redis = properties.getRedis();
+        var configuration = RedisCacheConfiguration.defaultCacheConfig();
+
+        if (redis.getTimeToLive() != null) {
+            configuration = configuration.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            configuration = configuration.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            configuration = configuration.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            configuration = configuration.disableKeyPrefix();
+        }
+
+        return configuration;
+    }
+
+    @Bean
+    public RedisCacheManager redisCacheManager(RedisConnectionFactory connectionFactory, RedisCacheConfiguration redisCacheConfiguration) {
+        return RedisCacheManager.builder(connectionFactory).cacheDefaults(redisCacheConfiguration).build();
+    }
+
+    @Bean
+    public CacheInvalidationBus cacheInvalidationBus(StringRedisTemplate redis, ObjectMapper mapper) {
+        return new CacheInvalidationBus(redis, mapper);
+    }
+
+    @Bean
+    public RedisMessageListenerContainer cacheInvalidationListener(RedisConnectionFactory connectionFactory, CacheInvalidationBus bus) {
+        var container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(bus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        return container;
+    }
+
+    @Bean
+    @Primary
+    public NearCacheManager cacheManager(RedisCacheManager redisCacheManager, CacheInvalidationBus bus, CacheConfiguration configuration, MeterRegistry meterRegistry) {
+        return new NearCacheManager(redisCacheManager, bus, configuration, meterRegistry);
+    }
+
+}
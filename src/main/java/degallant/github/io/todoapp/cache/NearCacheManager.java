@@ -0,0 +1,110 @@
+package degallant.github.io.todoapp.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Puts a bounded in-memory cache in front of the caches of another manager (redis).
+ * <p>
+ * All caches share the same in-memory store, so its size limit holds no matter how many caches are
+ * created (we have one per user). Entries also expire after near_ttl_seconds, which bounds how long an
+ * instance can serve an entry that changed elsewhere if an invalidation message is lost.
+ * <p>
+ * Hits and misses of each layer are exposed as cache.gets and cache.hit.ratio, tagged by layer.
+ */
+public class NearCacheManager implements CacheManager {
+
+    private final CacheManager remote;
+    private final CacheInvalidationBus bus;
+    private final com.github.benmanes.caffeine.cache.Cache<NearKey, Cache.ValueWrapper> near;
+    private final Map<String, NearCache> caches = new ConcurrentHashMap<>();
+
+    private final LongAdder nearHits = new LongAdder();
+    private final LongAdder nearMisses = new LongAdder();
+    private final LongAdder remoteHits = new LongAdder();
+    private final LongAdder remoteMisses = new LongAdder();
+
+    public NearCacheManager(CacheManager remote, CacheInvalidationBus bus, CacheConfiguration configuration, MeterRegistry meterRegistry) {
+        this.remote = remote;
+        this.bus = bus;
+        this.near = Caffeine.newBuilder()
+                .maximumSize(configuration.nearMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(configuration.nearTtlSeconds()))
+                .build();
+
+        bus.onInvalidation(invalidation -> {
+            if (invalidation.key() == null) {
+                clearNear(invalidation.cacheName());
+            } else {
+                evictNear(new NearKey(invalidation.cacheName(), invalidation.key()));
+            }
+        });
+
+        registerMeters(meterRegistry, "near", nearHits, nearMisses);
+        registerMeters(meterRegistry, "redis", remoteHits, remoteMisses);
+        Gauge.builder("cache.size", near, cache -> cache.estimatedSize()).tag("layer", "near").register(meterRegistry);
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, key -> {
+            var remoteCache = remote.getCache(key);
+            return remoteCache != null ? new NearCache(key, remoteCache, this) : null;
+        });
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Collections.unmodifiableSet(caches.keySet());
+    }
+
+    Cache.ValueWrapper getNear(NearKey key) {
+        var value = near.getIfPresent(key);
+        (value != null ? nearHits : nearMisses).increment();
+        return value;
+    }
+
+    void putNear(NearKey key, Cache.ValueWrapper value) {
+        near.put(key, value);
+    }
+
+    void evictNear(NearKey key) {
+        near.invalidate(key);
+    }
+
+    void clearNear(String cacheName) {
+        near.asMap().keySet().removeIf(key -> key.cacheName().equals(cacheName));
+    }
+
+    void recordRemote(boolean hit) {
+        (hit ? remoteHits : remoteMisses).increment();
+    }
+
+    void broadcast(String cacheName, String key) {
+        bus.publish(cacheName, key);
+    }
+
+    private static void registerMeters(MeterRegistry registry, String layer, LongAdder hits, LongAdder misses) {
+        FunctionCounter.builder("cache.gets", hits, LongAdder::sum).tags("layer", layer, "result", "hit").register(registry);
+        FunctionCounter.builder("cache.gets", misses, LongAdder::sum).tags("layer", layer, "result", "miss").register(registry);
+        Gauge.builder("cache.hit.ratio", () -> {
+            var total = hits.sum() + misses.sum();
+            return total == 0 ? Double.NaN : (double) hits.sum() / total;
+        }).tag("layer", layer).register(registry);
+    }
+
+    record NearKey(String cacheName, String key) {
+    }
+
+}
@@ -0,0 +1,64 @@
+package degallant.github.io.todoapp.cache;
+
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+import org.springframework.data.redis.core.ReactiveRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import reactor.core.publisher.Mono;
+
+/**
+ * The NearCache of the reactive reads, the in-memory layer is the same one, and redis is read and written without blocking.
+ * <p>
+ * Keys and values in redis are made by the same redis cache configuration as the cache manager, so an entry
+ * written here is found by the cache manager and the other way around.
+ * <p>
+ * A put is not broadcast, like NearCache.putWithoutBroadcast, the reactive reads only write entries of a new generation
+ * that no other instance can hold a different copy of.
+ */
+public class ReactiveResponseCache {
+
+    private final NearCacheManager manager;
+    private final RedisCacheConfiguration configuration;
+    private final ReactiveRedisTemplate<String, Object> redis;
+
+    public ReactiveResponseCache(NearCacheManager manager, ReactiveRedisConnectionFactory connectionFactory, RedisCacheConfiguration configuration) {
+        this.manager = manager;
+        this.configuration = configuration;
+        this.redis = new ReactiveRedisTemplate<>(connectionFactory, RedisSerializationContext.<String, Object>newSerializationContext()
+                .key(configuration.getKeySerializationPair())
+                .value(configuration.getValueSerializationPair())
+                .hashKey(configuration.getKeySerializationPair())
+                .hashValue(configuration.getValueSerializationPair())
+                .build());
+    }
+
+    public Mono<CachedResponse> get(String cacheName, String key) {
+        var nearKey = new NearCacheManager.NearKey(cacheName, key);
+        var near = manager.getNear(nearKey);
+
+        if (near != null) {
+            return near.get() instanceof CachedResponse cached ? Mono.just(cached) : Mono.empty();
+        }
+
+        return redis.opsForValue().get(redisKey(cacheName, key))
+                .doOnNext(value -> manager.putNear(nearKey, new SimpleValueWrapper(value)))
+                .doOnSuccess(value -> manager.recordRemote(value != null))
+                .filter(CachedResponse.class::isInstance)
+                .cast(CachedResponse.class);
+    }
+
+    public Mono<Boolean> put(String cacheName, String key, CachedResponse value) {
+        var ttl = configuration.getTtl();
+        var stored = ttl.isZero() || ttl.isNegative()
+                ? redis.opsForValue().set(redisKey(cacheName, key), value)
+                : redis.opsForValue().set(redisKey(cacheName, key), value, ttl);
+
+        return stored.doOnNext(ok -> manager.putNear(new NearCacheManager.NearKey(cacheName, key), new SimpleValueWrapper(value)));
+    }
+
+    private String redisKey(String cacheName, String key) {
+        return configuration.usePrefix() ? configuration.getKeyPrefixFor(cacheName) + key : key;
+    }
+
+}
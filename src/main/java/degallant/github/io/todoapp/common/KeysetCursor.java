@@ -0,0 +1,75 @@
+package degallant.github.io.todoapp.common;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The position of the last row of a page in a keyset (a.k.a. cursor) pagination.
+ * <p>
+ * It holds the value of every sorted property of that row, so the next page can be
+ * queried with a WHERE clause (e.g. title > 'Task C' OR (title = 'Task C' AND id > ...))
+ * instead of an OFFSET, which makes every page cost the same no matter how deep it is.
+ * <p>
+ * The sort must always end in a unique property (usually the id), otherwise rows with
+ * the same values could be skipped or repeated between pages.
+ *
+ * @param values the value of each sorted property, null values are allowed
+ */
+public record KeysetCursor(Map<String, Object> values) {
+
+    public static KeysetCursor of(Object entity, Sort sort) {
+        var wrapper = PropertyAccessorFactory.forBeanPropertyAccess(entity);
+        var values = new LinkedHashMap<String, Object>();
+        for (Sort.Order order : sort) {
+            values.put(order.getProperty(), wrapper.getPropertyValue(order.getProperty()));
+        }
+        return new KeysetCursor(values);
+    }
+
+    /**
+     * Makes a specification that matches only the rows that come after this cursor.
+     * <p>
+     * Null values are placed the same way postgres does by default:
+     * last in ascending order and first in descending order.
+     */
+    public <T> Specification<T> after(Sort sort) {
+        return (root, query, builder) -> {
+
+            List<Predicate> alternatives = new ArrayList<>();
+            List<Predicate> previousAreEqual = new ArrayList<>();
+
+            for (Sort.Order order : sort) {
+                Path<Comparable<Object>> path = root.get(order.getProperty());
+                @SuppressWarnings("unchecked")
+                var value = (Comparable<Object>) values.get(order.getProperty());
+
+                var alternative = new ArrayList<>(previousAreEqual);
+                alternative.add(comesAfter(builder, path, value, order.isAscending()));
+                alternatives.add(builder.and(alternative.toArray(new Predicate[]{})));
+
+                previousAreEqual.add(value == null ? builder.isNull(path) : builder.equal(path, value));
+            }
+
+            return builder.or(alternatives.toArray(new Predicate[]{}));
+
+        };
+    }
+
+    private <Y extends Comparable<? super Y>> Predicate comesAfter(CriteriaBuilder builder, Expression<? extends Y> path, Y value, boolean ascending) {
+        if (ascending) {
+            return value == null ? builder.disjunction() : builder.or(builder.greaterThan(path, value), builder.isNull(path));
+        }
+        return value == null ? builder.isNotNull(path) : builder.lessThan(path, value);
+    }
+
+}
@@ -9,9 +9,11 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.context.request.RequestAttributes;
 import org.springframework.web.context.request.RequestContextHolder;
 import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.util.UriUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -29,6 +31,17 @@ public class LinkBuilder {
         return new PathStep(new BuilderArgs(makeBaseUrl(), DEFAULT_VERSION)).to(path);
     }
 
+    /**
+     * The scheme, host and port of the current request, for links built away from the request thread with from(baseUrl).
+     */
+    public String baseUrl() {
+        return makeBaseUrl();
+    }
+
+    public PathStep from(String baseUrl) {
+        return new PathStep(new BuilderArgs(baseUrl, DEFAULT_VERSION));
+    }
+
     private String makeBaseUrl() {
         RequestAttributes requestAttributes = RequestContextHolder.getRequestAttributes();
         if (!(requestAttributes instanceof ServletRequestAttributes)) {
@@ -110,6 +123,11 @@ public class LinkBuilder {
             return addParam("s", sort);
         }
 
+        public ParamsStep removeParam(String name) {
+            args.getParams().remove(name);
+            return this;
+        }
+
         public Link build() {
             String path = args.getPaths().stream().map(Object::toString).reduce("", (first, second) -> first + "/" + second).substring(1);
             String params = parseParams();
@@ -121,7 +139,10 @@ public class LinkBuilder {
             StringBuilder parsedParams = new StringBuilder();
             for (String key : args.getParams().keySet()) {
                 String value = args.getParams().get(key);
-                parsedParams.append(key).append("=").append(value);
+                if (!parsedParams.isEmpty()) {
+                    parsedParams.append("&");
+                }
+                parsedParams.append(key).append("=").append(UriUtils.encodeQueryParam(value, StandardCharsets.UTF_8));
             }
             if (parsedParams.isEmpty()) {
                 return "";
@@ -138,7 +159,7 @@ public class LinkBuilder {
         private String baseUrl;
         private int version;
         private List<Object> paths = new ArrayList<>();
-        private Map<String, String> params = new HashMap<>();
+        private Map<String, String> params = new LinkedHashMap<>();
 
         public BuilderArgs(String baseUrl, int version) {
             this.baseUrl = baseUrl;
@@ -1,6 +1,8 @@
 package degallant.github.io.todoapp.common;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 import org.springframework.hateoas.mediatype.hal.HalModelBuilder;
 import org.springframework.stereotype.Component;
 
@@ -35,8 +37,67 @@ public class PagedResponse {
         return builder;
     }
 
+    /**
+     * Makes a response for a page that was fetched without counting all the elements,
+     * so there is no last page, and the total is either capped or not present at all.
+     *
+     * @param total the amount of elements, capped like "1000+", or null if it was not counted
+     */
+    public HalModelBuilder makeSliceResponse(LinkBuilder.ParamsStep linkBuilder, Slice<?> entitySlice, int page, String total) {
+        var builder = HalModelBuilder.emptyHalModel();
+
+        builder.entity(new SliceBody(entitySlice.getNumberOfElements(), total));
+        builder.link(linkBuilder.addPage(page).build().withSelfRel());
+
+        if (entitySlice.hasNext()) {
+            builder.link(linkBuilder.addPage(page + 1).build().withRel("next"));
+        }
+
+        if (entitySlice.hasPrevious()) {
+            builder.link(linkBuilder.addPage(page - 1).build().withRel("previous"));
+        }
+
+        if (!entitySlice.isEmpty()) {
+            builder.link(linkBuilder.addPage(1).build().withRel("first"));
+        }
+
+        return builder;
+    }
+
+    /**
+     * Makes a response for a keyset paginated list, since no count is made
+     * there is no total nor last page, only the link to the next one.
+     *
+     * @param after the cursor used to fetch the current slice, null if it is the first one
+     * @param next  the cursor to fetch the slice after the current one
+     */
+    public HalModelBuilder makeCursorResponse(LinkBuilder.ParamsStep linkBuilder, Slice<?> entitySlice, String after, String next) {
+        var builder = HalModelBuilder.emptyHalModel();
+
+        builder.entity(new CursorBody(entitySlice.getNumberOfElements()));
+        builder.link(linkBuilder.addParam("after", after).build().withSelfRel());
+
+        if (entitySlice.hasNext()) {
+            builder.link(linkBuilder.addParam("after", next).build().withRel("next"));
+        }
+
+        if (after != null) {
+            builder.link(linkBuilder.removeParam("after").build().withRel("first"));
+        }
+
+        return builder;
+    }
+
     public static record PageBody(int count, int pages, long total) {
 
     }
 
+    public static record SliceBody(int count, @JsonInclude(JsonInclude.Include.NON_NULL) String total) {
+
+    }
+
+    public static record CursorBody(int count) {
+
+    }
+
 }
@@ -0,0 +1,11 @@
+package degallant.github.io.todoapp.common;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.paging")
+public record PagingConfiguration(
+        int defaultSize,
+        int maxSize,
+        int countLimit
+) {
+}
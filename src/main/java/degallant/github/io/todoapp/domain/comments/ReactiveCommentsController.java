@@ -0,0 +1,78 @@
+package degallant.github.io.todoapp.domain.comments;
+
+import degallant.github.io.todoapp.OffsetHolder;
+import degallant.github.io.todoapp.common.LinkBuilder;
+import degallant.github.io.todoapp.domain.tasks.ReactiveTasksRepository;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.reactive.ReactiveController;
+import lombok.RequiredArgsConstructor;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.mediatype.hal.HalModelBuilder;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import reactor.core.publisher.Mono;
+
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the comments list of CommentsController without holding the request thread, see ReactiveReadsConfiguration.
+ *
+ * @noinspection ClassCanBeRecord, unused
+ */
+@ReactiveController
+@RequiredArgsConstructor
+@RequestMapping("/v1/tasks/" + ReactiveController.ID + "/comments")
+public class ReactiveCommentsController {
+
+    private final ReactiveCommentsRepository commentsRepository;
+    private final ReactiveTasksRepository tasksRepository;
+    private final LinkBuilder link;
+    private final OffsetHolder offsetHolder;
+
+    @GetMapping
+    public Mono<ResponseEntity<RepresentationModel<?>>> list(@PathVariable String id, Authentication authentication) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+
+        var baseUrl = link.baseUrl();
+        var offset = offsetHolder.getOffset();
+
+        return Mono.fromCallable(() -> UUID.fromString(id))
+                .filterWhen(taskId -> tasksRepository.existsByIdAndUserId(taskId, user.getId()))
+                .onErrorMap(IllegalArgumentException.class, exception -> new NoSuchElementException("Task with id " + id + " not found", exception))
+                .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Task with id " + id + " not found")))
+                .flatMap(taskId -> commentsRepository.findByTaskId(taskId).collectList().map(entities -> {
+
+                    var comments = entities.stream()
+                            .map(entity -> {
+                                var comment = CommentsDto.Details.builder()
+                                        .id(entity.id())
+                                        .text(entity.text())
+                                        .commentedAt(OffsetHolder.applyTo(entity.createdAt(), offset))
+                                        .editedAt(OffsetHolder.applyTo(entity.updatedAt(), offset))
+                                        .build();
+                                var linkSelf = link.from(baseUrl).to("tasks").slash(taskId).slash("comments").slash(entity.id()).withSelfRel();
+                                var linkAll = link.from(baseUrl).to("tasks").slash(taskId).slash("comments").withRel("all");
+                                var linkTask = link.from(baseUrl).to("tasks").slash(taskId).withRel("task");
+                                return EntityModel.of(comment).add(linkSelf, linkAll, linkTask);
+                            })
+                            .collect(Collectors.toList());
+
+                    var linkSelf = link.from(baseUrl).to("tasks").slash(taskId).slash("comments").withSelfRel();
+                    return HalModelBuilder.emptyHalModel()
+                            .embed(comments, CommentsDto.Details.class)
+                            .link(linkSelf)
+                            .build();
+
+                }))
+                .map(ResponseEntity::ok);
+
+    }
+
+}
@@ -0,0 +1,42 @@
+package degallant.github.io.todoapp.domain.comments;
+
+import degallant.github.io.todoapp.reactive.ReactiveDatabase;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * The reads of CommentsRepository that the reactive controllers need, made with r2dbc.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveCommentsRepository {
+
+    private final ReactiveDatabase database;
+
+    /**
+     * Same comments as TaskEntity.getComments, the ones that were not deleted.
+     */
+    public Flux<Comment> findByTaskId(UUID taskId) {
+        return database.client().sql("SELECT id, text, created_at, updated_at FROM comments WHERE task_id = :taskId AND deleted_at IS NULL")
+                .bind("taskId", taskId)
+                .map((row, metadata) -> new Comment(
+                        row.get("id", UUID.class),
+                        row.get("text", String.class),
+                        row.get("created_at", OffsetDateTime.class),
+                        row.get("updated_at", OffsetDateTime.class)
+                ))
+                .all();
+    }
+
+    public record Comment(UUID id, String text, OffsetDateTime createdAt, OffsetDateTime updatedAt) {
+    }
+
+}
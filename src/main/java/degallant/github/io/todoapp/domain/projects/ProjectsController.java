@@ -2,6 +2,7 @@ package degallant.github.io.todoapp.domain.projects;
 
 import degallant.github.io.todoapp.OffsetHolder;
 import degallant.github.io.todoapp.common.LinkBuilder;
+import degallant.github.io.todoapp.domain.tasks.TasksVersion;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import degallant.github.io.todoapp.sanitization.FieldValidator;
 import degallant.github.io.todoapp.sanitization.Sanitizer;
@@ -30,6 +31,7 @@ public class ProjectsController {
     private final LinkBuilder link;
     private final ProjectsFieldParser projectsParser;
     private final OffsetHolder offsetHolder;
+    private final TasksVersion tasksVersion;
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody ProjectsDto.Project request, Authentication authentication) {
@@ -102,6 +104,7 @@ public class ProjectsController {
 
         result.get("title").consumeIfExists(project::setTitle);
         repository.save(project);
+        tasksVersion.bump(user);
 
         return ResponseEntity.ok().build();
     }
@@ -114,6 +117,7 @@ public class ProjectsController {
 
         project.setDeletedAt(OffsetDateTime.now());
         repository.save(project);
+        tasksVersion.bump(user);
 
         return ResponseEntity.noContent().build();
 
@@ -2,6 +2,7 @@ package degallant.github.io.todoapp.domain.projects;
 
 import org.springframework.data.jpa.repository.JpaRepository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -12,4 +13,6 @@ public interface ProjectsRepository extends JpaRepository<ProjectEntity, UUID> {
 
     List<ProjectEntity> findByUserIdAndDeletedAtIsNull(UUID userId);
 
+    List<ProjectEntity> findByUserIdAndIdInAndDeletedAtIsNull(UUID userId, Collection<UUID> ids);
+
 }
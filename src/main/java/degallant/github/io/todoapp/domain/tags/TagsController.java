@@ -2,6 +2,7 @@ package degallant.github.io.todoapp.domain.tags;
 
 import degallant.github.io.todoapp.OffsetHolder;
 import degallant.github.io.todoapp.common.LinkBuilder;
+import degallant.github.io.todoapp.domain.tasks.TasksVersion;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import degallant.github.io.todoapp.sanitization.FieldValidator;
 import degallant.github.io.todoapp.sanitization.Sanitizer;
@@ -30,6 +31,7 @@ public class TagsController {
     private final LinkBuilder link;
     private final TagsFieldParser tagsParser;
     private final OffsetHolder offsetHolder;
+    private final TasksVersion tasksVersion;
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody TagsDto.Tag request, Authentication authentication) {
@@ -74,6 +76,7 @@ public class TagsController {
 
         result.get("name").consumeIfExists(tag::setName);
         repository.save(tag);
+        tasksVersion.bump(user);
 
         return ResponseEntity.ok().build();
 
@@ -96,6 +99,7 @@ public class TagsController {
 
         tag.setDeletedAt(OffsetDateTime.now());
         repository.save(tag);
+        tasksVersion.bump(user);
 
         return ResponseEntity.noContent().build();
 
@@ -0,0 +1,115 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.sanitization.*;
+import degallant.github.io.todoapp.sanitization.parsers.PrimitiveFieldParser;
+import degallant.github.io.todoapp.sanitization.parsers.ProjectsFieldParser;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.OptionalInt;
+import java.util.UUID;
+
+/**
+ * Changes or deletes many tasks of a user with a single UPDATE statement, the tasks are picked by a list of ids,
+ * by the same filters of the listing (title, q, due_date and complete), or by both.
+ * <p>
+ * The tasks are never loaded, so it takes one statement whatever the amount of tasks it changes.
+ * At least the ids or one of the filters is required, so a request can't change all the tasks by mistake.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@Service
+@RequiredArgsConstructor
+public class BulkTasksService {
+
+    private final TasksRepository tasksRepository;
+    private final ListTasksService listService;
+    private final Sanitizer sanitizer;
+    private final FieldValidator rules;
+    private final PrimitiveFieldParser parser;
+    private final ProjectsFieldParser projectsParser;
+    private final BatchConfiguration config;
+
+    /**
+     * @return the amount of tasks changed, or empty when the request has nothing to change
+     */
+    public OptionalInt patch(TasksDto.Bulk request, String title, String search, String dueDate, String complete, UserEntity user) {
+
+        var result = sanitizer.sanitize(
+
+                sanitizer.field("ids").withOptionalValue(request.getIds()).sanitize(this::toIds),
+
+                sanitizer.field("priority").withOptionalValue(request.getPriority()).sanitize(parser::toPriority),
+
+                sanitizer.field("project_id").withOptionalValue(request.getProjectId())
+                        .sanitize(value -> projectsParser.toProjectOrThrowInvalidValue(value, user)).withName("project"),
+
+                sanitizer.field("complete").withOptionalValue(request.getComplete()).sanitize(parser::toBoolean)
+
+        );
+
+        var filter = toFilter(result.get("ids").value(), title, search, dueDate, complete, user);
+
+        var attributes = new HashMap<String, Object>();
+        result.get("priority").consumeIfExists(value -> attributes.put("priority", value));
+        result.get("project").consumeIfExists(value -> attributes.put("project", value));
+        result.get("complete").consumeIfExists(value -> attributes.put("complete", value));
+
+        if (attributes.isEmpty()) {
+            return OptionalInt.empty();
+        }
+
+        attributes.put("updatedAt", OffsetDateTime.now());
+
+        return OptionalInt.of(tasksRepository.updateAll(filter, attributes));
+    }
+
+    /**
+     * Soft deletes the tasks, same as deleting them one by one.
+     *
+     * @param request can be null when the tasks are only picked by the filters
+     * @return the amount of tasks deleted
+     */
+    public int delete(TasksDto.Bulk request, String title, String search, String dueDate, String complete, UserEntity user) {
+
+        var result = sanitizer.sanitize(
+                sanitizer.field("ids").withOptionalValue(request != null ? request.getIds() : null).sanitize(this::toIds)
+        );
+
+        var filter = toFilter(result.get("ids").value(), title, search, dueDate, complete, user);
+
+        var now = OffsetDateTime.now();
+
+        return tasksRepository.updateAll(filter, Map.of("deletedAt", now, "updatedAt", now));
+    }
+
+    private List<UUID> toIds(String value) throws InvalidValueException {
+        var parsed = parser.toUUIDList(value);
+        rules.isBetween(parsed.size(), 1, config.maxIds());
+        return parsed;
+    }
+
+    private TasksRepositoryCustom.Filter toFilter(List<UUID> ids, String title, String search, String dueDate, String complete, UserEntity user) {
+
+        if (ids == null && title == null && search == null && dueDate == null && complete == null) {
+            throw new InvalidRequestException(new FieldAndErrorMessage("ids", "body", "validation.is_required", "ids"));
+        }
+
+        var params = listService.sanitizeParams(null, null, title, search, dueDate, complete, null, null);
+        Boolean isComplete = params.get("complete").value();
+        LocalDate date = params.get("due_date").value();
+
+        return (root, builder) -> {
+            var matching = listService.matching(root, builder, user, title, search, isComplete, date);
+            return ids == null ? matching : builder.and(matching, root.get("id").in(ids));
+        };
+
+    }
+
+}
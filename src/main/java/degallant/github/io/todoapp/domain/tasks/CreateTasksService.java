@@ -1,9 +1,10 @@
 package degallant.github.io.todoapp.domain.tasks;
 
 import degallant.github.io.todoapp.common.LinkBuilder;
+import degallant.github.io.todoapp.domain.projects.ProjectEntity;
+import degallant.github.io.todoapp.domain.projects.ProjectsRepository;
+import degallant.github.io.todoapp.domain.tags.TagEntity;
 import degallant.github.io.todoapp.sanitization.parsers.PrimitiveFieldParser;
-import degallant.github.io.todoapp.sanitization.parsers.ProjectsFieldParser;
-import degallant.github.io.todoapp.sanitization.parsers.TasksFieldParser;
 import degallant.github.io.todoapp.domain.tags.TagsRepository;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import degallant.github.io.todoapp.sanitization.*;
@@ -11,8 +12,16 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 
 import java.net.URI;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
+ * Tags, parents and projects referenced by the tasks are loaded up front with one statement each,
+ * for a single task as well as for a batch, and the tasks are then checked against what was found.
+ * <p>
+ * A batch is saved all at once, so hibernate sends its inserts in jdbc batches (see hibernate.jdbc.batch_size).
+ *
  * @noinspection ClassCanBeRecord
  */
 @Service
@@ -21,18 +30,64 @@ public class CreateTasksService {
 
     private final TasksRepository tasksRepository;
     private final TagsRepository tagsRepository;
+    private final ProjectsRepository projectsRepository;
     private final Sanitizer sanitizer;
     private final FieldValidator rules;
     private final PrimitiveFieldParser primitiveParser;
-    private final TasksFieldParser tasksParser;
-    private final ProjectsFieldParser projectsParser;
+    private final BatchConfiguration batchConfig;
     private final LinkBuilder link;
 
     public URI create(TasksDto.Create request, UserEntity user) {
 
-        var result = sanitizeRequest(request, user);
+        var references = loadReferences(List.of(request), user);
+        var result = sanitizeRequest(request, references);
 
-        var entity = TaskEntity.builder()
+        var entity = tasksRepository.save(toEntity(result, user));
+
+        return toUri(entity);
+    }
+
+    /**
+     * Either all the tasks are created or none, the errors of every task are reported at once
+     * with the fields prefixed by the index of the task (e.g. [2].title).
+     *
+     * @return the uris of the created tasks, in the same order as the requests
+     */
+    public List<URI> createAll(List<TasksDto.Create> requests, UserEntity user) {
+
+        if (requests == null || requests.isEmpty() || requests.size() > batchConfig.maxSize()) {
+            var size = requests == null ? 0 : requests.size();
+            throw new InvalidRequestException(new FieldAndErrorMessage("tasks", "body", "validation.is_between", size, 1, batchConfig.maxSize()));
+        }
+
+        var references = loadReferences(requests.stream().filter(Objects::nonNull).toList(), user);
+        var entities = new ArrayList<TaskEntity>(requests.size());
+        var errors = new ArrayList<FieldAndErrorMessage>();
+
+        for (int index = 0; index < requests.size(); index++) {
+            if (requests.get(index) == null) {
+                var field = "[" + index + "]";
+                errors.add(new FieldAndErrorMessage(field, "body", "validation.is_required", field));
+                continue;
+            }
+            try {
+                entities.add(toEntity(sanitizeRequest(requests.get(index), references), user));
+            } catch (InvalidRequestException exception) {
+                var prefix = "[" + index + "].";
+                exception.getErrors().forEach(error ->
+                        errors.add(new FieldAndErrorMessage(prefix + error.field(), error.origin(), error.errorId(), error.errorArgs())));
+            }
+        }
+
+        if (!errors.isEmpty()) {
+            throw new InvalidRequestException(errors);
+        }
+
+        return tasksRepository.saveAll(entities).stream().map(this::toUri).toList();
+    }
+
+    private TaskEntity toEntity(SanitizedCollection result, UserEntity user) {
+        return TaskEntity.builder()
                 .title(result.get("title").value())
                 .description(result.get("description").value())
                 .dueDate(result.get("due_date").value())
@@ -43,13 +98,13 @@ public class CreateTasksService {
                 .project(result.get("project").value())
                 .complete(result.get("complete").asBool())
                 .build();
+    }
 
-        entity = tasksRepository.save(entity);
-
+    private URI toUri(TaskEntity entity) {
         return link.to("tasks").slash(entity.getId()).withSelfRel().toUri();
     }
 
-    private SanitizedCollection sanitizeRequest(TasksDto.Create request, UserEntity user) {
+    private SanitizedCollection sanitizeRequest(TasksDto.Create request, References references) {
         return sanitizer.sanitize(
 
                 sanitizer.field("title").withRequiredValue(request.getTitle()).sanitize(value -> {
@@ -72,20 +127,75 @@ public class CreateTasksService {
 
                 sanitizer.field("tags_ids").withOptionalValue(request.getTagsIds()).sanitize(value -> {
                     var parsed = primitiveParser.toUUIDList(value);
-                    var found = tagsRepository.findAllByUserIdAndId(user.getId(), parsed);
+                    var found = parsed.stream().distinct().map(references.tags()::get).filter(Objects::nonNull).toList();
                     rules.hasUnknownTag(parsed, found);
                     return found;
                 }),
 
                 sanitizer.field("parent_id").withOptionalValue(request.getParentId())
-                        .sanitize(value -> tasksParser.toTaskOrThrowInvalidValue(value, user)).withName("parent"),
+                        .sanitize(value -> findOrThrowInvalidValue(references.parents(), value)).withName("parent"),
 
                 sanitizer.field("project_id").withOptionalValue(request.getProjectId())
-                        .sanitize(value -> projectsParser.toProjectOrThrowInvalidValue(value, user)).withName("project"),
+                        .sanitize(value -> findOrThrowInvalidValue(references.projects(), value)).withName("project"),
 
                 sanitizer.field("complete").withOptionalValue(request.getComplete()).sanitize(primitiveParser::toBoolean)
 
         );
     }
 
+    private <T> T findOrThrowInvalidValue(Map<UUID, T> entities, String id) throws InvalidValueException {
+        var entity = toUUID(id).map(entities::get);
+        if (entity.isEmpty()) {
+            throw new InvalidValueException("validation.do_not_exist", id);
+        }
+        return entity.get();
+    }
+
+    /**
+     * Ids that are not valid are skipped here, they are reported when each request is sanitized.
+     */
+    private References loadReferences(List<TasksDto.Create> requests, UserEntity user) {
+
+        var tagsIds = new HashSet<UUID>();
+        var parentsIds = new HashSet<UUID>();
+        var projectsIds = new HashSet<UUID>();
+
+        for (TasksDto.Create request : requests) {
+            if (request.getTagsIds() != null) {
+                try {
+                    tagsIds.addAll(primitiveParser.toUUIDList(request.getTagsIds()));
+                } catch (InvalidValueException ignored) {
+                }
+            }
+            toUUID(request.getParentId()).ifPresent(parentsIds::add);
+            toUUID(request.getProjectId()).ifPresent(projectsIds::add);
+        }
+
+        return new References(
+                tagsIds.isEmpty() ? Map.of() : toMap(tagsRepository.findAllByUserIdAndId(user.getId(), tagsIds), TagEntity::getId),
+                parentsIds.isEmpty() ? Map.of() : toMap(tasksRepository.findByUserIdAndIdInAndDeletedAtIsNull(user.getId(), parentsIds), TaskEntity::getId),
+                projectsIds.isEmpty() ? Map.of() : toMap(projectsRepository.findByUserIdAndIdInAndDeletedAtIsNull(user.getId(), projectsIds), ProjectEntity::getId)
+        );
+
+    }
+
+    private static <T> Map<UUID, T> toMap(List<T> entities, Function<T, UUID> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static Optional<UUID> toUUID(String id) {
+        if (id == null) {
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private record References(Map<UUID, TagEntity> tags, Map<UUID, TaskEntity> parents, Map<UUID, ProjectEntity> projects) {
+
+    }
+
 }
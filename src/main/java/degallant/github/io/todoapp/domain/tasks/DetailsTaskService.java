@@ -17,6 +17,8 @@ import org.springframework.stereotype.Service;
 import java.util.stream.Collectors;
 
 /**
+ * Loads the task with its tags, parent and project in one statement, and its sub tasks in another one.
+ *
  * @noinspection ClassCanBeRecord
  */
 @Service
@@ -24,13 +26,14 @@ import java.util.stream.Collectors;
 public class DetailsTaskService {
 
     private final TasksFieldParser taskParser;
+    private final TasksRepository tasksRepository;
     private final LinkBuilder link;
     private final OffsetHolder offsetHolder;
 
     public RepresentationModel<?> details(String rawId, Authentication authentication) {
 
         var user = (UserEntity) authentication.getPrincipal();
-        var entity = taskParser.toTaskOrThrowNoSuchElement(rawId, user);
+        var entity = taskParser.toTaskWithRelationsOrThrowNoSuchElement(rawId, user);
 
         var task = TasksDto.DetailsComplete.builder()
                 .title(entity.getTitle())
@@ -51,8 +54,8 @@ public class DetailsTaskService {
             response.embed(tags);
         }
 
-        var children = entity.getSubTasks();
-        if (children != null && !children.isEmpty()) {
+        var children = tasksRepository.findByParentId(entity.getId());
+        if (!children.isEmpty()) {
             var subTasks = children
                     .stream()
                     .map(this::toEntityModel)
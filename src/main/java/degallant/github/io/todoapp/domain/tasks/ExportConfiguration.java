@@ -0,0 +1,9 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.export")
+public record ExportConfiguration(
+        int fetchSize
+) {
+}
@@ -0,0 +1,119 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import degallant.github.io.todoapp.OffsetHolder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.Array;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Writes all the tasks of a user as newline delimited json, one task per line, straight from the result set.
+ * <p>
+ * The postgres driver only fetches the rows in batches of fetch_size when the statement runs inside a transaction
+ * (otherwise it reads the whole result in memory), so the query runs in a read only transaction and each row
+ * is written to the output as soon as it is read, keeping the memory used the same whatever the amount of tasks.
+ * <p>
+ * The tasks are read in the order of their ids, which is the order of the index on active tasks of a user,
+ * so postgres can start sending rows without sorting them first.
+ */
+@Service
+public class ExportTasksService {
+
+    private static final String SELECT_TASKS = """
+            SELECT t.id, t.title, t.description, t.due_date, t.priority, t.complete, t.parent_id, t.project_id, t.created_at, t.updated_at,
+            ARRAY(SELECT tt.tag_id FROM tasks_tags tt WHERE tt.task_id = t.id) AS tags_ids
+            FROM tasks t
+            WHERE t.user_id = ? AND t.deleted_at IS NULL
+            ORDER BY t.id""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectWriter writer;
+    private final ExportConfiguration config;
+
+    public ExportTasksService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, ObjectMapper mapper, ExportConfiguration config) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.writer = mapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator("");
+        this.config = config;
+    }
+
+    /**
+     * @param offset taken from the request beforehand, this usually runs away from the request thread
+     */
+    public void export(UUID userId, ZoneOffset offset, OutputStream output) throws IOException {
+
+        try (var generator = writer.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(SELECT_TASKS);
+                statement.setFetchSize(config.fetchSize());
+                statement.setObject(1, userId);
+                return statement;
+            }, (RowCallbackHandler) row -> write(generator, toExport(row, offset))));
+
+            generator.flush();
+
+        } catch (UncheckedIOException exception) {
+            throw exception.getCause();
+        }
+
+    }
+
+    private void write(JsonGenerator generator, TasksDto.Export task) {
+        try {
+            writer.writeValue(generator, task);
+            generator.writeRaw('\n');
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        }
+    }
+
+    private TasksDto.Export toExport(ResultSet row, ZoneOffset offset) throws SQLException {
+        var priority = row.getString("priority");
+        return TasksDto.Export.builder()
+                .id(row.getObject("id", UUID.class))
+                .title(row.getString("title"))
+                .description(row.getString("description"))
+                .dueDate(OffsetHolder.applyTo(row.getObject("due_date", OffsetDateTime.class), offset))
+                .priority(priority != null ? Priority.valueOf(priority) : null)
+                .complete(row.getBoolean("complete"))
+                .parentId(row.getObject("parent_id", UUID.class))
+                .projectId(row.getObject("project_id", UUID.class))
+                .tagsIds(toList(row.getArray("tags_ids")))
+                .createdAt(OffsetHolder.applyTo(row.getObject("created_at", OffsetDateTime.class), offset))
+                .updatedAt(OffsetHolder.applyTo(row.getObject("updated_at", OffsetDateTime.class), offset))
+                .build();
+    }
+
+    private List<UUID> toList(Array array) throws SQLException {
+        try {
+            return Arrays.asList((UUID[]) array.getArray());
+        } finally {
+            array.free();
+        }
+    }
+
+}
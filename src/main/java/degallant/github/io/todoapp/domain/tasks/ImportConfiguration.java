@@ -0,0 +1,10 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.import")
+public record ImportConfiguration(
+        int progressRows,
+        int maxReportedErrors
+) {
+}
@@ -0,0 +1,381 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvParser;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import degallant.github.io.todoapp.domain.projects.ProjectEntity;
+import degallant.github.io.todoapp.domain.projects.ProjectsRepository;
+import degallant.github.io.todoapp.domain.tags.TagEntity;
+import degallant.github.io.todoapp.domain.tags.TagsRepository;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.i18n.Messages;
+import degallant.github.io.todoapp.sanitization.*;
+import degallant.github.io.todoapp.sanitization.parsers.PrimitiveFieldParser;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.OffsetDateTime;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Imports tasks from a csv file (with a header) or a json array, with the same fields of the task creation
+ * except for parent_id. Dates in the past are accepted, the tasks usually come from years of use of another tool.
+ * <p>
+ * The upload is parsed one row at a time and every valid row is written right away to a temporary table through
+ * COPY FROM STDIN, which is then merged into tasks and tasks_tags with two statements, so the memory used
+ * does not depend on the size of the file. The tags and projects of the user are loaded once before the rows are read.
+ * <p>
+ * The report is newline delimited json written while the file is read: the errors of each invalid row
+ * (up to max_reported_errors, the rest are only counted), the progress every progress_rows rows
+ * and a last line with the status done or failed. Invalid rows are skipped, but a file that can't be parsed
+ * fails the whole import and nothing is saved.
+ */
+@Service
+public class ImportTasksService {
+
+    public static final String CSV = "text/csv";
+
+    private static final int MAX_LENGTH = 255;
+    private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+    private static final String CREATE_STAGING = """
+            CREATE TEMPORARY TABLE tasks_import (
+                id uuid NOT NULL DEFAULT gen_random_uuid(),
+                title varchar(255) NOT NULL,
+                description varchar(255),
+                due_date timestamp with time zone,
+                priority varchar(255),
+                complete boolean NOT NULL,
+                project_id uuid,
+                tags_ids uuid[]
+            ) ON COMMIT DROP""";
+
+    private static final String COPY_STAGING = "COPY tasks_import (title, description, due_date, priority, complete, project_id, tags_ids) FROM STDIN WITH (FORMAT csv)";
+
+    private static final String MERGE_TASKS = """
+            INSERT INTO tasks (id, title, description, due_date, priority, complete, project_id, user_id, created_at)
+            SELECT id, title, description, due_date, priority, complete, project_id, ?, now() FROM tasks_import""";
+
+    private static final String MERGE_TAGS = """
+            INSERT INTO tasks_tags (task_id, tag_id)
+            SELECT i.id, t.tag_id FROM tasks_import i CROSS JOIN LATERAL unnest(i.tags_ids) AS t(tag_id)""";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectReader jsonReader;
+    private final ObjectReader csvReader;
+    private final ObjectWriter writer;
+    private final Sanitizer sanitizer;
+    private final FieldValidator rules;
+    private final PrimitiveFieldParser parser;
+    private final TagsRepository tagsRepository;
+    private final ProjectsRepository projectsRepository;
+    private final Messages messages;
+    private final ImportConfiguration config;
+
+    public ImportTasksService(
+            JdbcTemplate jdbcTemplate,
+            PlatformTransactionManager transactionManager,
+            ObjectMapper mapper,
+            Sanitizer sanitizer,
+            FieldValidator rules,
+            PrimitiveFieldParser parser,
+            TagsRepository tagsRepository,
+            ProjectsRepository projectsRepository,
+            Messages messages,
+            ImportConfiguration config
+    ) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.jsonReader = mapper.readerFor(TasksDto.ImportRow.class);
+        this.csvReader = new CsvMapper()
+                .enable(CsvParser.Feature.EMPTY_STRING_AS_NULL)
+                .enable(CsvParser.Feature.TRIM_SPACES)
+                .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+                .readerFor(TasksDto.ImportRow.class)
+                .with(CsvSchema.emptySchema().withHeader());
+        this.writer = mapper.writer()
+                .without(SerializationFeature.INDENT_OUTPUT)
+                .withRootValueSeparator("");
+        this.sanitizer = sanitizer;
+        this.rules = rules;
+        this.parser = parser;
+        this.tagsRepository = tagsRepository;
+        this.projectsRepository = projectsRepository;
+        this.messages = messages;
+        this.config = config;
+    }
+
+    /**
+     * @param contentType either text/csv or application/json
+     * @return the amount of tasks imported
+     */
+    public long importTasks(InputStream input, String contentType, UserEntity user, OutputStream output) throws IOException {
+
+        var reader = CSV.equals(contentType) ? csvReader : jsonReader;
+        var references = new References(
+                toMap(tagsRepository.findByUserIdAndDeletedAtIsNull(user.getId()), TagEntity::getId),
+                toMap(projectsRepository.findByUserIdAndDeletedAtIsNull(user.getId()), ProjectEntity::getId)
+        );
+
+        try (var generator = writer.createGenerator(output)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            var report = new Report(generator);
+
+            try {
+                var imported = transactionTemplate.execute(status -> jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+                    try (MappingIterator<TasksDto.ImportRow> rows = reader.readValues(input)) {
+                        return copy(rows, connection, user, references, report);
+                    } catch (IOException exception) {
+                        throw new UncheckedIOException(exception);
+                    }
+                }));
+                report.done(imported == null ? 0 : imported);
+                return report.imported;
+            } catch (UncheckedIOException exception) {
+                if (!(exception.getCause() instanceof JsonProcessingException)) {
+                    throw exception.getCause();
+                }
+                report.failed(exception.getCause().getMessage());
+                return 0;
+            }
+        }
+
+    }
+
+    private long copy(MappingIterator<TasksDto.ImportRow> rows, Connection connection, UserEntity user, References references, Report report) throws SQLException, IOException {
+
+        try (var statement = connection.createStatement()) {
+            statement.execute(CREATE_STAGING);
+        }
+
+        var copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGING);
+        try {
+            var buffer = new StringBuilder(COPY_BUFFER_SIZE + 1024);
+
+            while (rows.hasNextValue()) {
+                var row = rows.nextValue();
+                report.read();
+                try {
+                    append(buffer, sanitizeRow(row, references));
+                    report.valid();
+                } catch (InvalidRequestException exception) {
+                    report.rejected(exception.getErrors());
+                }
+                if (buffer.length() >= COPY_BUFFER_SIZE) {
+                    write(copyIn, buffer);
+                }
+            }
+
+            write(copyIn, buffer);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+
+        try (var statement = connection.prepareStatement(MERGE_TASKS); var tags = connection.createStatement()) {
+            statement.setObject(1, user.getId());
+            var imported = statement.executeUpdate();
+            tags.executeUpdate(MERGE_TAGS);
+            return imported;
+        }
+
+    }
+
+    private SanitizedCollection sanitizeRow(TasksDto.ImportRow row, References references) {
+        return sanitizer.sanitize(
+
+                sanitizer.field("title").withRequiredValue(row.getTitle()).sanitize(value -> {
+                    rules.isNotEmpty(value);
+                    rules.hasAtMost(value, MAX_LENGTH);
+                    return value;
+                }),
+
+                sanitizer.field("description").withOptionalValue(row.getDescription()).sanitize(value -> {
+                    rules.isNotEmpty(value);
+                    rules.hasAtMost(value, MAX_LENGTH);
+                    return value;
+                }),
+
+                sanitizer.field("due_date").withOptionalValue(row.getDueDate()).sanitize(parser::toOffsetDateTime),
+
+                sanitizer.field("priority").withOptionalValue(row.getPriority()).sanitize(parser::toPriority),
+
+                sanitizer.field("complete").withOptionalValue(row.getComplete()).sanitize(parser::toBoolean),
+
+                sanitizer.field("project_id").withOptionalValue(row.getProjectId()).sanitize(value -> {
+                    var project = toUUID(value).map(references.projects()::get);
+                    rules.check(project.isPresent()).orThrow("validation.do_not_exist", value);
+                    return project.get().getId();
+                }),
+
+                sanitizer.field("tags_ids").withOptionalValue(row.getTagsIds()).sanitize(value -> {
+                    var parsed = parser.toUUIDList(value);
+                    var found = parsed.stream().distinct().map(references.tags()::get).filter(Objects::nonNull).toList();
+                    rules.hasUnknownTag(parsed, found);
+                    return found.stream().map(TagEntity::getId).toList();
+                })
+
+        );
+    }
+
+    /**
+     * Appends the row in the csv format of COPY, where an unquoted empty value is null.
+     */
+    private void append(StringBuilder buffer, SanitizedCollection row) {
+        appendQuoted(buffer, row.get("title").value());
+        buffer.append(',');
+        appendQuoted(buffer, row.get("description").value());
+        buffer.append(',');
+        OffsetDateTime dueDate = row.get("due_date").value();
+        if (dueDate != null) {
+            buffer.append(dueDate);
+        }
+        buffer.append(',');
+        Priority priority = row.get("priority").value();
+        if (priority != null) {
+            buffer.append(priority.name());
+        }
+        buffer.append(',');
+        buffer.append(row.get("complete").asBool());
+        buffer.append(',');
+        UUID projectId = row.get("project_id").value();
+        if (projectId != null) {
+            buffer.append(projectId);
+        }
+        buffer.append(',');
+        List<UUID> tagsIds = row.get("tags_ids").value();
+        if (tagsIds != null) {
+            buffer.append("\"{").append(tagsIds.stream().map(UUID::toString).collect(Collectors.joining(","))).append("}\"");
+        }
+        buffer.append('\n');
+    }
+
+    private void appendQuoted(StringBuilder buffer, String value) {
+        if (value == null) {
+            return;
+        }
+        buffer.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+
+    private void write(CopyIn copyIn, StringBuilder buffer) throws SQLException {
+        if (buffer.isEmpty()) {
+            return;
+        }
+        var bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+    private static <T> Map<UUID, T> toMap(List<T> entities, Function<T, UUID> id) {
+        return entities.stream().collect(Collectors.toMap(id, Function.identity()));
+    }
+
+    private static Optional<UUID> toUUID(String id) {
+        try {
+            return Optional.of(UUID.fromString(id));
+        } catch (IllegalArgumentException exception) {
+            return Optional.empty();
+        }
+    }
+
+    private record References(Map<UUID, TagEntity> tags, Map<UUID, ProjectEntity> projects) {
+
+    }
+
+    /**
+     * Counts the rows and writes the lines of the report, rows are numbered from 1 in the order they are read.
+     */
+    private class Report {
+
+        private final JsonGenerator generator;
+        private long rows;
+        private long valid;
+        private long rejected;
+        private long imported;
+
+        private Report(JsonGenerator generator) {
+            this.generator = generator;
+        }
+
+        private void read() {
+            rows++;
+        }
+
+        private void valid() {
+            valid++;
+            progressIfDue();
+        }
+
+        private void rejected(List<FieldAndErrorMessage> errors) {
+            rejected++;
+            if (rejected <= config.maxReportedErrors()) {
+                var types = errors.stream().map(error -> new FieldAndErrorType(
+                        error.field(),
+                        "https://todoapp.com/" + error.errorId(),
+                        messages.get(error.errorId(), error.errorArgs()),
+                        error.origin()
+                )).toList();
+                write(TasksDto.ImportRowError.builder().row(rows).errors(types).build(), false);
+            }
+            progressIfDue();
+        }
+
+        private void progressIfDue() {
+            if (rows % config.progressRows() == 0) {
+                write(progress("running", valid, null), true);
+            }
+        }
+
+        private void done(long imported) {
+            this.imported = imported;
+            write(progress("done", imported, null), true);
+        }
+
+        private void failed(String error) {
+            write(progress("failed", 0, error), true);
+        }
+
+        private TasksDto.ImportProgress progress(String status, long imported, String error) {
+            return TasksDto.ImportProgress.builder().status(status).rows(rows).imported(imported).rejected(rejected).error(error).build();
+        }
+
+        private void write(Object line, boolean flush) {
+            try {
+                writer.writeValue(generator, line);
+                generator.writeRaw('\n');
+                if (flush) {
+                    generator.flush();
+                }
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        }
+
+    }
+
+}
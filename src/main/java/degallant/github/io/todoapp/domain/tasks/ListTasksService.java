@@ -1,17 +1,24 @@
 package degallant.github.io.todoapp.domain.tasks;
 
 import degallant.github.io.todoapp.OffsetHolder;
+import degallant.github.io.todoapp.common.KeysetCursor;
 import degallant.github.io.todoapp.common.LinkBuilder;
 import degallant.github.io.todoapp.common.PagedResponse;
+import degallant.github.io.todoapp.common.PagingConfiguration;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import degallant.github.io.todoapp.sanitization.FieldValidator;
 import degallant.github.io.todoapp.sanitization.SanitizedCollection;
 import degallant.github.io.todoapp.sanitization.Sanitizer;
+import degallant.github.io.todoapp.sanitization.parsers.CursorFieldParser;
 import degallant.github.io.todoapp.sanitization.parsers.PrimitiveFieldParser;
 import degallant.github.io.todoapp.sanitization.parsers.SortingFieldParser;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Expression;
 import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.hateoas.EntityModel;
@@ -20,6 +27,7 @@ import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
 import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -31,12 +39,18 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class ListTasksService {
 
+    private static final String OFFSET_PAGING = "offset";
+    private static final String SLICE_PAGING = "slice";
+    private static final String CURSOR_PAGING = "cursor";
+
     private final TasksRepository tasksRepository;
     private final Sanitizer sanitizer;
     private final FieldValidator rules;
     private final PrimitiveFieldParser parser;
     private final SortingFieldParser sortingParser;
+    private final CursorFieldParser cursorParser;
     private final PagedResponse pagedResponse;
+    private final PagingConfiguration pagingConfiguration;
     private final LinkBuilder link;
     private final OffsetHolder offsetHolder;
 
@@ -44,70 +58,193 @@ public class ListTasksService {
             String page,
             String sort,
             String title,
+            String search,
             String dueDate,
             String complete,
+            String paging,
+            String size,
+            String after,
             UserEntity user
     ) {
 
-        var result = sanitizeParams(page, sort, title, dueDate, complete);
+        var result = sanitizeParams(page, sort, title, search, dueDate, complete, paging, size);
+
+        var linkBuilder = link.to("tasks").withParams()
+                .addSort(sort)
+                .addParam("title", title)
+                .addParam("q", search)
+                .addParam("due_date", dueDate)
+                .addParam("complete", complete)
+                .addParam("size", size);
+        var specification = matchesAnyOf(user, title, search, result.get("complete").value(), result.get("due_date").value());
+        var pageSize = result.get("size").or(pagingConfiguration.defaultSize());
+
+        if (result.get("paging").or(OFFSET_PAGING).equals(CURSOR_PAGING) || after != null) {
+            return listAfter(linkBuilder.addParam("paging", CURSOR_PAGING), specification, result.get("s").or(Sort.unsorted()), pageSize, after);
+        }
+
+        var pageRequest = PageRequest.of(result.get("p").asInt() - 1, pageSize, result.get("s").or(Sort.unsorted()));
 
-        var linkBuilder = link.to("tasks").withParams().addSort(sort);
-        var pageRequest = PageRequest.of(result.get("p").asInt() - 1, 10, result.get("s").or(Sort.unsorted()));
-        var specification = matchesAnyOf(user, title, result.get("complete").value(), result.get("due_date").value());
-        var tasksPage = tasksRepository.findAll(specification, pageRequest);
+        if (result.get("paging").or(OFFSET_PAGING).equals(SLICE_PAGING)) {
+            return listSlice(linkBuilder.addParam("paging", SLICE_PAGING), specification, pageRequest);
+        }
+
+        var tasksPage = tasksRepository.findSummaries(specification, pageRequest);
 
         var response = pagedResponse.makePagedResponse(linkBuilder, tasksPage, result.get("p").value());
 
-        var tasks = tasksPage
+        response.embed(toEntityModels(tasksPage, link.baseUrl(), offsetHolder.getOffset()), TasksDto.DetailsSimple.class);
+
+        return response.build();
+    }
+
+    /**
+     * The key of a listing in the user's tasks cache, every param that changes the response is part of it.
+     */
+    public static String cacheKey(long generation, ZoneOffset offset, String page, String sort, String title, String search, String dueDate, String complete, String paging, String size, String after) {
+        return "generation=" + generation + "&offset=" + offset + "&page=" + page + "&sort=" + sort + "&title=" + title + "&q=" + search + "&dueDate=" + dueDate + "&complete=" + complete + "&paging=" + paging + "&size=" + size + "&after=" + after;
+    }
+
+    /**
+     * Lists the tasks by page number, but instead of an exact count it fetches one extra row to
+     * know if there is a next page, and counts the total only up to count_limit.
+     */
+    private RepresentationModel<?> listSlice(LinkBuilder.ParamsStep linkBuilder, Specification<TaskEntity> specification, PageRequest pageRequest) {
+
+        var tasksSlice = tasksRepository.findSummariesSlice(specification, pageRequest);
+
+        String total = null;
+        var countLimit = pagingConfiguration.countLimit();
+        if (countLimit > 0) {
+            var count = tasksRepository.countUpTo(specification, countLimit);
+            total = count > countLimit ? countLimit + "+" : String.valueOf(count);
+        }
+
+        var response = pagedResponse.makeSliceResponse(linkBuilder, tasksSlice, pageRequest.getPageNumber() + 1, total);
+
+        response.embed(toEntityModels(tasksSlice, link.baseUrl(), offsetHolder.getOffset()), TasksDto.DetailsSimple.class);
+
+        return response.build();
+    }
+
+    /**
+     * Lists the tasks using keyset pagination, where each page starts right after
+     * the last task of the previous one, so there is no OFFSET scan and no count query.
+     * <p>
+     * The id is always appended to the sort so the order of the tasks is deterministic.
+     */
+    private RepresentationModel<?> listAfter(LinkBuilder.ParamsStep linkBuilder, Specification<TaskEntity> specification, Sort sort, int size, String after) {
+
+        var keysetSort = sort.and(Sort.by("id"));
+
+        var result = sanitizer.sanitize(
+                sanitizer.param("after").withOptionalValue(after)
+                        .sanitize(value -> cursorParser.toCursorOrThrowInvalidValue(value, keysetSort, TaskEntity.class))
+        );
+
+        if (result.get("after").exists()) {
+            specification = specification.and(result.get("after").as(KeysetCursor.class).after(keysetSort));
+        }
+
+        var tasksSlice = tasksRepository.findSummariesSlice(specification, PageRequest.of(0, size, keysetSort));
+
+        String next = null;
+        if (tasksSlice.hasNext()) {
+            var last = tasksSlice.getContent().get(tasksSlice.getNumberOfElements() - 1);
+            next = cursorParser.toToken(KeysetCursor.of(last, keysetSort));
+        }
+
+        var response = pagedResponse.makeCursorResponse(linkBuilder, tasksSlice, after, next);
+
+        response.embed(toEntityModels(tasksSlice, link.baseUrl(), offsetHolder.getOffset()), TasksDto.DetailsSimple.class);
+
+        return response.build();
+    }
+
+    /**
+     * Also used by the reactive reads, so the base url and offset are taken from the request beforehand.
+     */
+    List<EntityModel<TasksDto.DetailsSimple>> toEntityModels(Slice<TaskSummary> tasks, String baseUrl, ZoneOffset offset) {
+        return tasks
                 .stream()
-                .map(entity -> {
+                .map(summary -> {
                     var task = TasksDto.DetailsSimple.builder()
-                            .id(entity.getId())
-                            .title(entity.getTitle())
-                            .description(entity.getDescription())
-                            .dueDate(offsetHolder.applyTo(entity.getDueDate()))
-                            .complete(entity.getComplete())
+                            .id(summary.getId())
+                            .title(summary.getTitle())
+                            .description(summary.getDescription())
+                            .dueDate(OffsetHolder.applyTo(summary.getDueDate(), offset))
+                            .complete(summary.getComplete())
                             .build();
-                    var linkSelf = link.to("tasks").slash(entity.getId()).withSelfRel();
-                    var linkComments = link.to("tasks").slash(entity.getId()).slash("comments").withRel("comments");
+                    var linkSelf = link.from(baseUrl).to("tasks").slash(summary.getId()).withSelfRel();
+                    var linkComments = link.from(baseUrl).to("tasks").slash(summary.getId()).slash("comments").withRel("comments");
                     return EntityModel.of(task).add(linkSelf, linkComments);
                 })
                 .collect(Collectors.toList());
+    }
+
+    /**
+     * The title filter is a case-insensitive substring match, backed by the tasks_title_trgm_idx trigram index.
+     * <p>
+     * The search is a full-text match on title and description, backed by the tasks_search_idx index.
+     * When the listing has no explicit sort, the tasks are ranked by how well they match the search.
+     */
+    public Specification<TaskEntity> matchesAnyOf(UserEntity user, String title, String search, Boolean complete, LocalDate date) {
+        return (root, query, builder) -> {
+
+            //the count query has no use for ordering
+            if (search != null && !search.isEmpty() && query.getResultType() != Long.class && query.getOrderList().isEmpty()) {
+                var rank = builder.function(TasksSearchFunctions.RANK, Float.class, searchArguments(root, builder, search));
+                query.orderBy(builder.desc(rank), builder.asc(root.get("id")));
+            }
 
-        response.embed(tasks, TasksDto.DetailsSimple.class);
+            return matching(root, builder, user, title, search, complete, date);
 
-        return response.build();
+        };
     }
 
-    public Specification<TaskEntity> matchesAnyOf(UserEntity user, String title, Boolean complete, LocalDate date) {
-        return (root, query, builder) -> {
+    /**
+     * The predicate of matchesAnyOf on its own, so it can also be the where of statements that are not a select (e.g. a bulk update).
+     */
+    Predicate matching(Root<TaskEntity> root, CriteriaBuilder builder, UserEntity user, String title, String search, Boolean complete, LocalDate date) {
 
-            List<Predicate> predicates = new ArrayList<>();
+        List<Predicate> predicates = new ArrayList<>();
 
-            predicates.add(builder.equal(root.get("user"), user));
-            predicates.add(builder.isNull(root.get("deletedAt")));
+        predicates.add(builder.equal(root.get("user"), user));
+        predicates.add(builder.isNull(root.get("deletedAt")));
 
-            if (title != null && !title.isEmpty()) {
-                predicates.add(builder.like(root.get("title"), "%" + title + "%"));
-            }
+        if (title != null && !title.isEmpty()) {
+            var pattern = "%" + escapeLike(title.toLowerCase()) + "%";
+            predicates.add(builder.like(builder.lower(root.get("title")), pattern, '\\'));
+        }
 
-            if (complete != null) {
-                predicates.add(builder.equal(root.get("complete"), complete));
-            }
+        if (search != null && !search.isEmpty()) {
+            predicates.add(builder.isTrue(builder.function(TasksSearchFunctions.MATCHES, Boolean.class, searchArguments(root, builder, search))));
+        }
 
-            if (date != null) {
-                var now = OffsetDateTime.now();
-                var startOfDay = date.atTime(0, 0).atOffset(now.getOffset());
-                var endOfDay = date.atTime(23, 59).atOffset(now.getOffset());
-                predicates.add(builder.between(root.get("dueDate"), startOfDay, endOfDay));
-            }
+        if (complete != null) {
+            predicates.add(builder.equal(root.get("complete"), complete));
+        }
 
-            return builder.and(predicates.toArray(new Predicate[]{}));
+        if (date != null) {
+            var now = OffsetDateTime.now();
+            var startOfDay = date.atTime(0, 0).atOffset(now.getOffset());
+            var endOfDay = date.atTime(23, 59).atOffset(now.getOffset());
+            predicates.add(builder.between(root.get("dueDate"), startOfDay, endOfDay));
+        }
+
+        return builder.and(predicates.toArray(new Predicate[]{}));
 
-        };
     }
 
-    private SanitizedCollection sanitizeParams(String page, String sort, String title, String dueDate, String complete) {
+    private Expression<?>[] searchArguments(Root<TaskEntity> root, CriteriaBuilder builder, String search) {
+        return new Expression<?>[]{root.get("title"), root.get("description"), builder.literal(search)};
+    }
+
+    private String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+
+    SanitizedCollection sanitizeParams(String page, String sort, String title, String search, String dueDate, String complete, String paging, String size) {
         return sanitizer.sanitize(
                 sanitizer.param("p").withOptionalValue(page).sanitize(value -> {
                     var parsed = parser.toInteger(value);
@@ -123,9 +260,25 @@ public class ListTasksService {
                     return value;
                 }),
 
+                sanitizer.param("q").withOptionalValue(search).sanitize(value -> {
+                    rules.isNotEmpty(value.trim());
+                    return value;
+                }),
+
                 sanitizer.param("due_date").withOptionalValue(dueDate).sanitize(parser::toLocalDate),
 
-                sanitizer.param("complete").withOptionalValue(complete).sanitize(parser::toBoolean)
+                sanitizer.param("complete").withOptionalValue(complete).sanitize(parser::toBoolean),
+
+                sanitizer.param("paging").withOptionalValue(paging).sanitize(value -> {
+                    rules.check(OFFSET_PAGING.equals(value) || SLICE_PAGING.equals(value) || CURSOR_PAGING.equals(value)).orThrow("validation.is_paging", value);
+                    return value;
+                }),
+
+                sanitizer.param("size").withOptionalValue(size).sanitize(value -> {
+                    var parsed = parser.toInteger(value);
+                    rules.isBetween(parsed, 1, pagingConfiguration.maxSize());
+                    return parsed;
+                })
         );
     }
 
@@ -0,0 +1,222 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.OffsetHolder;
+import degallant.github.io.todoapp.cache.CacheConfiguration;
+import degallant.github.io.todoapp.cache.CachedResponse;
+import degallant.github.io.todoapp.cache.HalWriter;
+import degallant.github.io.todoapp.cache.ReactiveResponseCache;
+import degallant.github.io.todoapp.common.LinkBuilder;
+import degallant.github.io.todoapp.common.PagedResponse;
+import degallant.github.io.todoapp.common.PagingConfiguration;
+import degallant.github.io.todoapp.domain.projects.ProjectsDto;
+import degallant.github.io.todoapp.domain.tags.TagsDto;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.reactive.ReactiveController;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.RepresentationModel;
+import org.springframework.hateoas.mediatype.hal.HalModelBuilder;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Serves the tasks list and details of TasksController without holding the request thread, see ReactiveReadsConfiguration.
+ * <p>
+ * The list only takes the params of the offset paging and the complete filter, a list with any other filter
+ * or paging does not match here and is served by TasksController. Both read and write the same cache entries.
+ * <p>
+ * Everything that needs the request (principal, params, base url, offset) is read before the Mono is returned,
+ * the rest runs on the threads of the r2dbc and redis drivers.
+ *
+ * @noinspection ClassCanBeRecord, unused
+ */
+@ReactiveController
+@RequiredArgsConstructor
+@RequestMapping("/v1/tasks")
+public class ReactiveTasksController {
+
+    private final ReactiveTasksRepository repository;
+    private final ReactiveResponseCache cache;
+    private final ListTasksService listService;
+    private final TasksVersion tasksVersion;
+    private final PagedResponse pagedResponse;
+    private final PagingConfiguration pagingConfiguration;
+    private final CacheConfiguration cacheConfiguration;
+    private final HalWriter halWriter;
+    private final LinkBuilder link;
+    private final OffsetHolder offsetHolder;
+    private final MeterRegistry meterRegistry;
+
+    @GetMapping(params = {"!title", "!q", "!due_date", "!paging", "!after"})
+    public Mono<ResponseEntity<byte[]>> list(
+            @RequestParam(name = "p", defaultValue = "1") String requestedPageNumber,
+            @RequestParam(name = "s", required = false) String sort,
+            @RequestParam(name = "complete", required = false) String requestedComplete,
+            @RequestParam(required = false) String size,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication,
+            HttpServletRequest request
+    ) {
+
+        meterRegistry.counter("PAGE_VIEW.TasksList").increment();
+
+        var startTime = System.currentTimeMillis();
+        var timer = meterRegistry.timer("execution.time.TasksList");
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var result = listService.sanitizeParams(requestedPageNumber, sort, null, null, null, requestedComplete, null, size);
+
+        var page = result.get("p").asInt();
+        var pageRequest = PageRequest.of(page - 1, result.get("size").or(pagingConfiguration.defaultSize()), result.get("s").or(Sort.unsorted()));
+        Boolean complete = result.get("complete").value();
+
+        var baseUrl = link.baseUrl();
+        var offset = offsetHolder.getOffset();
+        var representation = tasksVersion.representation(user, request);
+        var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        return tasksVersion.currentReactive(user)
+                .flatMap(version -> {
+
+                    var headers = makeHeaders(version, representation);
+
+                    if (TasksVersion.isNotModified(ifNoneMatch, headers.getETag())) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).<byte[]>build());
+                    }
+
+                    var cacheName = TasksVersion.cacheName(user);
+                    var cacheId = ListTasksService.cacheKey(version, offset, requestedPageNumber, sort, null, null, null, requestedComplete, null, size, null);
+
+                    return cache.get(cacheName, cacheId)
+                            .doOnNext(cached -> meterRegistry.counter("cache.TasksList", "result", "hit").increment())
+                            .switchIfEmpty(Mono.defer(() -> {
+                                meterRegistry.counter("cache.TasksList", "result", "miss").increment();
+                                return repository.findSummaries(user.getId(), complete, pageRequest)
+                                        .map(tasksPage -> {
+                                            var linkBuilder = link.from(baseUrl).to("tasks").withParams()
+                                                    .addSort(sort)
+                                                    .addParam("complete", requestedComplete)
+                                                    .addParam("size", size);
+                                            var response = pagedResponse.makePagedResponse(linkBuilder, tasksPage, page);
+                                            response.embed(listService.toEntityModels(tasksPage, baseUrl, offset), TasksDto.DetailsSimple.class);
+                                            return CachedResponse.of(halWriter.write(response.build()), cacheConfiguration.gzip());
+                                        })
+                                        .flatMap(serialized -> cache.put(cacheName, cacheId, serialized).thenReturn(serialized));
+                            }))
+                            .map(cached -> cached.toResponseEntity(acceptEncoding, headers));
+
+                })
+                .doFinally(signal -> timer.record(Duration.ofMillis(System.currentTimeMillis() - startTime)));
+
+    }
+
+    @GetMapping("/" + ReactiveController.ID)
+    public Mono<ResponseEntity<RepresentationModel<?>>> details(@PathVariable String id, Authentication authentication, HttpServletRequest request) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+
+        var baseUrl = link.baseUrl();
+        var offset = offsetHolder.getOffset();
+        var representation = tasksVersion.representation(user, request);
+        var ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+
+        return tasksVersion.currentReactive(user)
+                .flatMap(version -> {
+
+                    var headers = makeHeaders(version, representation);
+
+                    if (TasksVersion.isNotModified(ifNoneMatch, headers.getETag())) {
+                        return Mono.just(ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).<RepresentationModel<?>>build());
+                    }
+
+                    return Mono.fromCallable(() -> UUID.fromString(id))
+                            .flatMap(taskId -> repository.findWithRelationsByIdAndUserId(taskId, user.getId()))
+                            .onErrorMap(IllegalArgumentException.class, exception -> new NoSuchElementException("Task with id " + id + " not found", exception))
+                            .switchIfEmpty(Mono.error(() -> new NoSuchElementException("Task with id " + id + " not found")))
+                            .flatMap(task -> Mono.zip(
+                                    repository.findTagsByTaskId(task.id()).collectList(),
+                                    repository.findByParentId(task.id()).collectList()
+                            ).map(relations -> toDetails(task, relations.getT1(), relations.getT2(), baseUrl, offset)))
+                            .map(response -> ResponseEntity.ok().headers(headers).body(response));
+
+                });
+
+    }
+
+    private HttpHeaders makeHeaders(long version, String representation) {
+        var headers = new HttpHeaders();
+        headers.setETag(TasksVersion.etag(version, representation));
+        //clients may keep the response, but have to revalidate it every time
+        headers.setCacheControl(TasksVersion.CACHE_CONTROL);
+        return headers;
+    }
+
+    /**
+     * Same model as DetailsTaskService.details.
+     */
+    private RepresentationModel<?> toDetails(ReactiveTasksRepository.TaskDetails entity, List<ReactiveTasksRepository.Related> tags, List<ReactiveTasksRepository.Related> children, String baseUrl, ZoneOffset offset) {
+
+        var task = TasksDto.DetailsComplete.builder()
+                .title(entity.title())
+                .description(entity.description())
+                .dueDate(OffsetHolder.applyTo(entity.dueDate(), offset))
+                .priority(entity.priority())
+                .complete(entity.complete())
+                .createdAt(OffsetHolder.applyTo(entity.createdAt(), offset))
+                .updatedAt(OffsetHolder.applyTo(entity.updatedAt(), offset));
+
+        var response = HalModelBuilder.emptyHalModel();
+
+        if (!tags.isEmpty()) {
+            response.embed(tags.stream()
+                    .map(tag -> EntityModel.of(TagsDto.Details.builder().id(tag.id()).name(tag.name()).build())
+                            .add(link.from(baseUrl).to("tags").slash(tag.id()).withSelfRel()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (!children.isEmpty()) {
+            response.embed(children.stream()
+                    .map(child -> EntityModel.of(TasksDto.SubTask.builder().id(child.id()).title(child.name()).description(child.description()).build())
+                            .add(link.from(baseUrl).to("tasks").slash(child.id()).withSelfRel()))
+                    .collect(Collectors.toList()));
+        }
+
+        if (entity.parent() != null) {
+            var parent = TasksDto.ParentTask.builder()
+                    .id(entity.parent().id())
+                    .title(entity.parent().name())
+                    .build();
+            response.embed(EntityModel.of(parent).add(link.from(baseUrl).to("tasks").slash(parent.getId()).withSelfRel()));
+        }
+
+        if (entity.project() != null) {
+            var project = ProjectsDto.Details.builder()
+                    .id(entity.project().id())
+                    .title(entity.project().name())
+                    .build();
+            response.embed(EntityModel.of(project).add(link.from(baseUrl).to("projects").slash(project.getId()).withSelfRel()));
+        }
+
+        response.link(link.from(baseUrl).to("tasks").slash(entity.id()).withSelfRel());
+        response.entity(task.build());
+
+        return response.build();
+
+    }
+
+}
@@ -0,0 +1,167 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.reactive.ReactiveDatabase;
+import io.r2dbc.spi.Row;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * The reads of TasksRepository that the reactive controllers need, made with r2dbc.
+ * <p>
+ * The statements are the same ones hibernate makes for the mvc controllers, so both return the same tasks in the same order.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@Repository
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveTasksRepository {
+
+    private static final Map<String, String> SORT_COLUMNS = Map.of("title", "title", "dueDate", "due_date");
+
+    private final ReactiveDatabase database;
+
+    /**
+     * Same as TasksRepository.findSummaries, filtered only by user and complete.
+     * <p>
+     * Like PageableExecutionUtils, the count is skipped when the page itself tells the total.
+     */
+    public Mono<Page<TaskSummary>> findSummaries(UUID userId, Boolean complete, Pageable pageable) {
+        var where = " WHERE user_id = :userId AND deleted_at IS NULL" + (complete != null ? " AND complete = :complete" : "");
+
+        var select = bind(database.client().sql("SELECT id, title, description, due_date, complete FROM tasks" + where + orderBy(pageable.getSort()) + " LIMIT :limit OFFSET :offset"), userId, complete)
+                .bind("limit", pageable.getPageSize())
+                .bind("offset", pageable.getOffset())
+                .map((row, metadata) -> new TaskSummary(
+                        row.get("id", UUID.class),
+                        row.get("title", String.class),
+                        row.get("description", String.class),
+                        row.get("due_date", OffsetDateTime.class),
+                        row.get("complete", Boolean.class)
+                ))
+                .all()
+                .collectList();
+
+        return select.flatMap(content -> {
+            if (content.size() < pageable.getPageSize() && (pageable.getOffset() == 0 || !content.isEmpty())) {
+                return Mono.just(new PageImpl<>(content, pageable, pageable.getOffset() + content.size()));
+            }
+            return bind(database.client().sql("SELECT count(*) FROM tasks" + where), userId, complete)
+                    .map((row, metadata) -> row.get(0, Long.class))
+                    .one()
+                    .map(total -> new PageImpl<>(content, pageable, total));
+        });
+    }
+
+    /**
+     * Same as TasksRepository.findWithRelationsByIdAndUserIdAndDeletedAtIsNull, the tags come from findTagsByTaskId.
+     */
+    public Mono<TaskDetails> findWithRelationsByIdAndUserId(UUID id, UUID userId) {
+        return database.client().sql("""
+                        SELECT t.id, t.title, t.description, t.due_date, t.priority, t.complete, t.created_at, t.updated_at,
+                               p.id AS parent_id, p.title AS parent_title, pr.id AS project_id, pr.title AS project_title
+                        FROM tasks t
+                        LEFT JOIN tasks p ON p.id = t.parent_id
+                        LEFT JOIN projects pr ON pr.id = t.project_id
+                        WHERE t.id = :id AND t.user_id = :userId AND t.deleted_at IS NULL""")
+                .bind("id", id)
+                .bind("userId", userId)
+                .map((row, metadata) -> toTaskDetails(row))
+                .one();
+    }
+
+    public Mono<Boolean> existsByIdAndUserId(UUID id, UUID userId) {
+        return database.client().sql("SELECT 1 FROM tasks WHERE id = :id AND user_id = :userId AND deleted_at IS NULL")
+                .bind("id", id)
+                .bind("userId", userId)
+                .map((row, metadata) -> true)
+                .one()
+                .defaultIfEmpty(false);
+    }
+
+    public Flux<Related> findTagsByTaskId(UUID taskId) {
+        return database.client().sql("SELECT tg.id, tg.name FROM tasks_tags tt INNER JOIN tags tg ON tg.id = tt.tag_id WHERE tt.task_id = :taskId")
+                .bind("taskId", taskId)
+                .map((row, metadata) -> new Related(row.get("id", UUID.class), row.get("name", String.class), null))
+                .all();
+    }
+
+    /**
+     * Same as TasksRepository.findByParentId, which also returns deleted sub tasks.
+     */
+    public Flux<Related> findByParentId(UUID parentId) {
+        return database.client().sql("SELECT id, title, description FROM tasks WHERE parent_id = :parentId")
+                .bind("parentId", parentId)
+                .map((row, metadata) -> new Related(row.get("id", UUID.class), row.get("title", String.class), row.get("description", String.class)))
+                .all();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(DatabaseClient.GenericExecuteSpec spec, UUID userId, Boolean complete) {
+        spec = spec.bind("userId", userId);
+        return complete != null ? spec.bind("complete", complete) : spec;
+    }
+
+    /**
+     * The sort was already checked against title and due_date, so only known columns end up in the statement.
+     */
+    private String orderBy(Sort sort) {
+        if (sort.isUnsorted()) {
+            return "";
+        }
+        return sort.stream()
+                .map(order -> SORT_COLUMNS.get(order.getProperty()) + (order.isAscending() ? " ASC" : " DESC"))
+                .collect(Collectors.joining(", ", " ORDER BY ", ""));
+    }
+
+    private TaskDetails toTaskDetails(Row row) {
+        var priority = row.get("priority", String.class);
+        var parentId = row.get("parent_id", UUID.class);
+        var projectId = row.get("project_id", UUID.class);
+        return new TaskDetails(
+                row.get("id", UUID.class),
+                row.get("title", String.class),
+                row.get("description", String.class),
+                row.get("due_date", OffsetDateTime.class),
+                priority != null ? Priority.valueOf(priority) : null,
+                row.get("complete", Boolean.class),
+                row.get("created_at", OffsetDateTime.class),
+                row.get("updated_at", OffsetDateTime.class),
+                parentId != null ? new Related(parentId, row.get("parent_title", String.class), null) : null,
+                projectId != null ? new Related(projectId, row.get("project_title", String.class), null) : null
+        );
+    }
+
+    public record TaskDetails(
+            UUID id,
+            String title,
+            String description,
+            OffsetDateTime dueDate,
+            Priority priority,
+            Boolean complete,
+            OffsetDateTime createdAt,
+            OffsetDateTime updatedAt,
+            Related parent,
+            Related project
+    ) {
+    }
+
+    /**
+     * A task, tag or project shown inside another task, name is the title or the name of the tag.
+     */
+    public record Related(UUID id, String name, String description) {
+    }
+
+}
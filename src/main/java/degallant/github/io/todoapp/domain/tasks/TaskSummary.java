@@ -0,0 +1,27 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+/**
+ * The columns of a task that are shown in the tasks list.
+ * <p>
+ * It is selected straight from the query, so it is not managed by the persistence context:
+ * no lazy proxies are made and no snapshot is kept for dirty checking.
+ * <p>
+ * It has getters instead of being a record so it can be read as a bean by the keyset cursor.
+ */
+@Getter
+@AllArgsConstructor
+public class TaskSummary {
+
+    private final UUID id;
+    private final String title;
+    private final String description;
+    private final OffsetDateTime dueDate;
+    private final Boolean complete;
+
+}
@@ -1,26 +1,30 @@
 package degallant.github.io.todoapp.domain.tasks;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import degallant.github.io.todoapp.OffsetHolder;
+import degallant.github.io.todoapp.cache.CacheConfiguration;
+import degallant.github.io.todoapp.cache.CachedResponse;
+import degallant.github.io.todoapp.cache.HalWriter;
+import degallant.github.io.todoapp.cache.NearCache;
 import degallant.github.io.todoapp.domain.users.UserEntity;
 import degallant.github.io.todoapp.sanitization.parsers.TasksFieldParser;
 import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.CacheManager;
+import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.hateoas.RepresentationModel;
-import org.springframework.hateoas.mediatype.MessageResolver;
-import org.springframework.hateoas.mediatype.hal.CurieProvider;
-import org.springframework.hateoas.mediatype.hal.Jackson2HalModule;
-import org.springframework.hateoas.server.core.AnnotationLinkRelationProvider;
-import org.springframework.hateoas.server.core.DelegatingLinkRelationProvider;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.time.Duration;
 import java.time.OffsetDateTime;
+import java.util.List;
 
 /**
  * @noinspection ClassCanBeRecord, unused, ConstantConditions
@@ -34,12 +38,17 @@ public class TasksController {
     private final DetailsTaskService detailService;
     private final CreateTasksService createService;
     private final PatchTasksService patchService;
+    private final ExportTasksService exportService;
+    private final BulkTasksService bulkService;
+    private final ImportTasksService importService;
     private final TasksRepository repository;
     private final TasksFieldParser parser;
     private final CacheManager cacheManager;
-    private final ObjectMapper mapper;
     private final OffsetHolder offsetHolder;
     private final MeterRegistry meterRegistry;
+    private final TasksVersion tasksVersion;
+    private final CacheConfiguration cacheConfiguration;
+    private final HalWriter halWriter;
 
     @PostMapping
     public ResponseEntity<?> create(@RequestBody TasksDto.Create request, Authentication authentication) {
@@ -53,6 +62,88 @@ public class TasksController {
 
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<?> createBatch(@RequestBody List<TasksDto.Create> request, Authentication authentication) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var uris = createService.createAll(request, user);
+
+        invalidateCacheList(user);
+
+        var response = TasksDto.Batch.builder().count(uris.size()).tasks(uris).build();
+
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+
+    }
+
+    @PostMapping(value = "/import", consumes = {ImportTasksService.CSV, MediaType.APPLICATION_JSON_VALUE})
+    public ResponseEntity<StreamingResponseBody> importTasks(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType, HttpServletRequest request, Authentication authentication) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var locale = LocaleContextHolder.getLocale();
+        var type = contentType.getType() + "/" + contentType.getSubtype();
+
+        StreamingResponseBody body = output -> {
+            LocaleContextHolder.setLocale(locale);
+            try {
+                if (importService.importTasks(request.getInputStream(), type, user, output) > 0) {
+                    invalidateCacheList(user);
+                }
+            } finally {
+                LocaleContextHolder.resetLocaleContext();
+            }
+        };
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+
+    }
+
+    @PatchMapping("/bulk")
+    public ResponseEntity<?> patchBulk(
+            @RequestParam(required = false) String title,
+            @RequestParam(name = "q", required = false) String search,
+            @RequestParam(name = "due_date", required = false) String dueDate,
+            @RequestParam(name = "complete", required = false) String complete,
+            @RequestBody TasksDto.Bulk request,
+            Authentication authentication
+    ) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var count = bulkService.patch(request, title, search, dueDate, complete, user);
+
+        if (count.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        if (count.getAsInt() > 0) {
+            invalidateCacheList(user);
+        }
+
+        return ResponseEntity.ok(TasksDto.Affected.builder().count(count.getAsInt()).build());
+
+    }
+
+    @DeleteMapping("/bulk")
+    public ResponseEntity<?> deleteBulk(
+            @RequestParam(required = false) String title,
+            @RequestParam(name = "q", required = false) String search,
+            @RequestParam(name = "due_date", required = false) String dueDate,
+            @RequestParam(name = "complete", required = false) String complete,
+            @RequestBody(required = false) TasksDto.Bulk request,
+            Authentication authentication
+    ) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var count = bulkService.delete(request, title, search, dueDate, complete, user);
+
+        if (count > 0) {
+            invalidateCacheList(user);
+        }
+
+        return ResponseEntity.ok(TasksDto.Affected.builder().count(count).build());
+
+    }
+
     @PatchMapping("/{id}")
     public ResponseEntity<?> patch(@PathVariable String id, @RequestBody TasksDto.Create request, Authentication authentication) {
 
@@ -72,9 +163,15 @@ public class TasksController {
             @RequestParam(name = "p", defaultValue = "1") String requestedPageNumber,
             @RequestParam(name = "s", required = false) String sort,
             @RequestParam(required = false) String title,
+            @RequestParam(name = "q", required = false) String search,
             @RequestParam(name = "due_date", required = false) String dueDate,
             @RequestParam(name = "complete", required = false) String requestedComplete,
-            Authentication authentication
+            @RequestParam(required = false) String paging,
+            @RequestParam(required = false) String size,
+            @RequestParam(required = false) String after,
+            @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication,
+            ServletWebRequest webRequest
     ) {
 
         meterRegistry.counter("PAGE_VIEW.TasksList").increment();
@@ -84,34 +181,69 @@ public class TasksController {
 
         var user = (UserEntity) authentication.getPrincipal();
 
-        var cache = cacheManager.getCache("user:" + user.getId() + ":tasks");
-        var cacheId = "offset=" + offsetHolder.getOffset() + "&page=" + requestedPageNumber + "&sort=" + sort + "&title=" + title + "&dueDate=" + dueDate + "&complete=" + requestedComplete;
-        var cachedValue = cache.get(cacheId, String.class);
+        if (tasksVersion.checkNotModified(user, webRequest)) {
+            timer.record(Duration.ofMillis(System.currentTimeMillis() - startTime));
+            return null;
+        }
+
+        var cache = cacheManager.getCache(TasksVersion.cacheName(user));
+        var cacheId = ListTasksService.cacheKey(tasksVersion.current(user), offsetHolder.getOffset(), requestedPageNumber, sort, title, search, dueDate, requestedComplete, paging, size, after);
+        var cachedValue = cache.get(cacheId);
 
-        if (cachedValue != null) {
+        if (cachedValue != null && cachedValue.get() instanceof CachedResponse cachedResponse) {
+            meterRegistry.counter("cache.TasksList", "result", "hit").increment();
             timer.record(Duration.ofMillis(System.currentTimeMillis() - startTime));
-            return ResponseEntity.ok().contentType(MediaType.valueOf("application/hal+json")).body(cachedValue);
+            return cachedResponse.toResponseEntity(acceptEncoding);
         }
 
+        meterRegistry.counter("cache.TasksList", "result", "miss").increment();
+
         RepresentationModel<?> response = listService.list(
                 requestedPageNumber,
                 sort,
                 title,
+                search,
                 dueDate,
                 requestedComplete,
+                paging,
+                size,
+                after,
                 user
         );
 
-        var serialized = serialize(response);
-        cache.put(cacheId, serialized);
+        var serialized = CachedResponse.of(halWriter.write(response), cacheConfiguration.gzip());
+        //the key carries the generation of the cache, so no other instance can hold a different copy of it
+        if (cache instanceof NearCache nearCache) {
+            nearCache.putWithoutBroadcast(cacheId, serialized);
+        } else {
+            cache.put(cacheId, serialized);
+        }
 
         timer.record(Duration.ofMillis(System.currentTimeMillis() - startTime));
-        return ResponseEntity.ok(response);
+        return serialized.toResponseEntity(acceptEncoding);
+
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(Authentication authentication) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+        var offset = offsetHolder.getOffset();
+
+        StreamingResponseBody body = output -> exportService.export(user.getId(), offset, output);
+
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
 
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> details(@PathVariable String id, Authentication authentication) {
+    public ResponseEntity<?> details(@PathVariable String id, Authentication authentication, ServletWebRequest webRequest) {
+
+        var user = (UserEntity) authentication.getPrincipal();
+
+        if (tasksVersion.checkNotModified(user, webRequest)) {
+            return null;
+        }
 
         RepresentationModel<?> response = detailService.details(id, authentication);
 
@@ -134,21 +266,8 @@ public class TasksController {
 
     }
 
-    private String serialize(Object model) {
-        try {
-            var provider = new DelegatingLinkRelationProvider(new AnnotationLinkRelationProvider());
-            var instantiator = new Jackson2HalModule.HalHandlerInstantiator(provider, CurieProvider.NONE, MessageResolver.DEFAULTS_ONLY);
-            mapper.registerModule(new Jackson2HalModule());
-            mapper.setHandlerInstantiator(instantiator);
-            return mapper.writerWithDefaultPrettyPrinter().writeValueAsString(model);
-        } catch (JsonProcessingException exception) {
-            throw new RuntimeException(exception);
-        }
-    }
-
     private void invalidateCacheList(UserEntity user) {
-        var cache = cacheManager.getCache("user:" + user.getId() + ":tasks");
-        cache.invalidate();
+        tasksVersion.bump(user);
     }
 
 }
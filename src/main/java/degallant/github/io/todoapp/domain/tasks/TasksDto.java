@@ -1,13 +1,17 @@
 package degallant.github.io.todoapp.domain.tasks;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import degallant.github.io.todoapp.sanitization.FieldAndErrorType;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import org.springframework.hateoas.server.core.Relation;
 
+import java.net.URI;
 import java.time.OffsetDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class TasksDto {
@@ -91,6 +95,110 @@ public class TasksDto {
 
     }
 
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Export {
+
+        private UUID id;
+        private String title;
+        private String description;
+        @JsonProperty("due_date")
+        private OffsetDateTime dueDate;
+        private Priority priority;
+        private boolean complete;
+        @JsonProperty("parent_id")
+        private UUID parentId;
+        @JsonProperty("project_id")
+        private UUID projectId;
+        @JsonProperty("tags_ids")
+        private List<UUID> tagsIds;
+        @JsonProperty("created_at")
+        private OffsetDateTime createdAt;
+        @JsonProperty("updated_at")
+        private OffsetDateTime updatedAt;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Batch {
+
+        private int count;
+        private List<URI> tasks;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Bulk {
+
+        private String ids;
+        private String priority;
+        @JsonProperty("project_id")
+        private String projectId;
+        private String complete;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class Affected {
+
+        private int count;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    public static class ImportRow {
+
+        private String title;
+        private String description;
+        @JsonProperty("due_date")
+        private String dueDate;
+        private String priority;
+        private String complete;
+        @JsonProperty("project_id")
+        private String projectId;
+        @JsonProperty("tags_ids")
+        private String tagsIds;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class ImportProgress {
+
+        private String status;
+        private long rows;
+        private long imported;
+        private long rejected;
+        private String error;
+
+    }
+
+    @Getter
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class ImportRowError {
+
+        private long row;
+        private List<FieldAndErrorType> errors;
+
+    }
+
     @Getter
     @NoArgsConstructor
     @AllArgsConstructor
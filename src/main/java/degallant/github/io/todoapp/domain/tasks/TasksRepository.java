@@ -1,15 +1,30 @@
 package degallant.github.io.todoapp.domain.tasks;
 
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
 @Repository
-public interface TasksRepository extends JpaRepository<TaskEntity, UUID>, JpaSpecificationExecutor<TaskEntity> {
+public interface TasksRepository extends JpaRepository<TaskEntity, UUID>, JpaSpecificationExecutor<TaskEntity>, TasksRepositoryCustom {
 
     Optional<TaskEntity> findByIdAndUserIdAndDeletedAtIsNull(UUID id, UUID userId);
 
+    /**
+     * Same as findByIdAndUserIdAndDeletedAtIsNull, but the relations shown in the task details come in the same statement.
+     * <p>
+     * Sub tasks are not part of it, fetching two collections at once would multiply their rows, see findByParentId.
+     */
+    @EntityGraph(attributePaths = {"tags", "parent", "project"})
+    Optional<TaskEntity> findWithRelationsByIdAndUserIdAndDeletedAtIsNull(UUID id, UUID userId);
+
+    List<TaskEntity> findByParentId(UUID parentId);
+
+    List<TaskEntity> findByUserIdAndIdInAndDeletedAtIsNull(UUID userId, Collection<UUID> ids);
+
 }
@@ -0,0 +1,50 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Map;
+
+public interface TasksRepositoryCustom {
+
+    /**
+     * Same as findAll(Specification, Pageable) but only the columns of TaskSummary are selected.
+     */
+    Page<TaskSummary> findSummaries(Specification<TaskEntity> specification, Pageable pageable);
+
+    /**
+     * Same as findSummaries but without the count query.
+     * <p>
+     * One extra row is fetched to find out if there is a next page.
+     */
+    Slice<TaskSummary> findSummariesSlice(Specification<TaskEntity> specification, Pageable pageable);
+
+    /**
+     * Counts the tasks that match the specification, but stops counting at the limit.
+     *
+     * @return the amount of tasks, or limit + 1 if there are more than limit tasks
+     */
+    long countUpTo(Specification<TaskEntity> specification, int limit);
+
+    /**
+     * Sets the attributes of every task that matches the filter in a single UPDATE statement, without loading them,
+     * so there are no entity callbacks and updated_at has to be one of the attributes.
+     *
+     * @return the amount of tasks updated
+     */
+    @Transactional
+    int updateAll(Filter filter, Map<String, Object> attributes);
+
+    interface Filter {
+
+        Predicate toPredicate(Root<TaskEntity> root, CriteriaBuilder builder);
+
+    }
+
+}
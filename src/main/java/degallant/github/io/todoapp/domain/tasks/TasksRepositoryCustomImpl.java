@@ -0,0 +1,125 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.TypedQuery;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * @noinspection ClassCanBeRecord, unused
+ */
+@RequiredArgsConstructor
+public class TasksRepositoryCustomImpl implements TasksRepositoryCustom {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public Page<TaskSummary> findSummaries(Specification<TaskEntity> specification, Pageable pageable) {
+        var content = selectSummaries(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(specification));
+    }
+
+    @Override
+    public Slice<TaskSummary> findSummariesSlice(Specification<TaskEntity> specification, Pageable pageable) {
+        var content = selectSummaries(specification, pageable.getSort())
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize() + 1)
+                .getResultList();
+
+        var hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content = content.subList(0, pageable.getPageSize());
+        }
+
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    @Override
+    public long countUpTo(Specification<TaskEntity> specification, int limit) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(UUID.class);
+        var root = query.from(TaskEntity.class);
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(root.get("id"));
+        query.orderBy(List.of());
+
+        return entityManager.createQuery(query)
+                .setMaxResults(limit + 1)
+                .getResultList()
+                .size();
+    }
+
+    @Override
+    public int updateAll(Filter filter, Map<String, Object> attributes) {
+        var builder = entityManager.getCriteriaBuilder();
+        var update = builder.createCriteriaUpdate(TaskEntity.class);
+        var root = update.from(TaskEntity.class);
+
+        attributes.forEach(update::set);
+        update.where(filter.toPredicate(root, builder));
+
+        return entityManager.createQuery(update).executeUpdate();
+    }
+
+    private TypedQuery<TaskSummary> selectSummaries(Specification<TaskEntity> specification, Sort sort) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(TaskSummary.class);
+        var root = query.from(TaskEntity.class);
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(builder.construct(
+                TaskSummary.class,
+                root.get("id"),
+                root.get("title"),
+                root.get("description"),
+                root.get("dueDate"),
+                root.get("complete")
+        ));
+
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, root, builder));
+        }
+
+        return entityManager.createQuery(query);
+    }
+
+    private long count(Specification<TaskEntity> specification) {
+        var builder = entityManager.getCriteriaBuilder();
+        var query = builder.createQuery(Long.class);
+        var root = query.from(TaskEntity.class);
+
+        var predicate = specification.toPredicate(root, query, builder);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+
+        query.select(builder.count(root));
+
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+}
@@ -0,0 +1,31 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import org.hibernate.boot.model.FunctionContributions;
+import org.hibernate.boot.model.FunctionContributor;
+import org.hibernate.type.StandardBasicTypes;
+
+/**
+ * Full-text search functions for tasks, so they can be used in criteria queries.
+ * <p>
+ * The document expression has to be the same one of the tasks_search_idx index, otherwise postgres will not use it.
+ * <p>
+ * Registered in META-INF/services/org.hibernate.boot.model.FunctionContributor.
+ */
+public class TasksSearchFunctions implements FunctionContributor {
+
+    public static final String MATCHES = "task_search_matches";
+    public static final String RANK = "task_search_rank";
+
+    private static final String DOCUMENT = "to_tsvector('simple', ?1 || ' ' || coalesce(?2, ''))";
+    private static final String QUERY = "plainto_tsquery('simple', ?3)";
+
+    @Override
+    public void contributeFunctions(FunctionContributions functionContributions) {
+        var types = functionContributions.getTypeConfiguration().getBasicTypeRegistry();
+        var registry = functionContributions.getFunctionRegistry();
+
+        registry.registerPattern(MATCHES, "(" + DOCUMENT + " @@ " + QUERY + ")", types.resolve(StandardBasicTypes.BOOLEAN));
+        registry.registerPattern(RANK, "ts_rank(" + DOCUMENT + ", " + QUERY + ")", types.resolve(StandardBasicTypes.FLOAT));
+    }
+
+}
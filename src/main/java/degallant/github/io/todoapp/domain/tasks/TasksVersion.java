@@ -0,0 +1,97 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.OffsetHolder;
+import degallant.github.io.todoapp.cache.CacheGenerations;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A version of all the tasks of a user, bumped on every write that changes how they are rendered.
+ * <p>
+ * It is the generation of the user's tasks list cache, and it is also used to make strong ETags,
+ * so clients polling the tasks get a 304 before we do any work to render them.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@Component
+@RequiredArgsConstructor
+public class TasksVersion {
+
+    public static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePrivate();
+
+    private final CacheGenerations cacheGenerations;
+    private final OffsetHolder offsetHolder;
+
+    public static String cacheName(UserEntity user) {
+        return "user:" + user.getId() + ":tasks";
+    }
+
+    public long current(UserEntity user) {
+        return cacheGenerations.current(cacheName(user));
+    }
+
+    public Mono<Long> currentReactive(UserEntity user) {
+        return cacheGenerations.currentReactive(cacheName(user));
+    }
+
+    public void bump(UserEntity user) {
+        cacheGenerations.bump(cacheName(user));
+    }
+
+    /**
+     * Checks the If-None-Match header against the ETag of the requested representation,
+     * which also depends on who is asking, the requested offset and the accepted encoding.
+     *
+     * @return true if the client already has this version and a 304 was set in the response
+     */
+    public boolean checkNotModified(UserEntity user, ServletWebRequest request) {
+        //clients may keep the response, but have to revalidate it every time
+        request.getResponse().setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.getHeaderValue());
+
+        return request.checkNotModified(etag(current(user), representation(user, request.getRequest())));
+    }
+
+    /**
+     * The part of the ETag that identifies the requested representation, the version of the tasks is the other part.
+     * <p>
+     * The reactive reads take it on the request thread and make the ETag once they have read the version.
+     */
+    public String representation(UserEntity user, HttpServletRequest request) {
+        var query = request.getQueryString();
+        var representation = user.getId()
+                + "|" + offsetHolder.getOffset()
+                + "|" + request.getRequestURI() + (query != null ? "?" + query : "")
+                + "|" + request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        return DigestUtils.md5DigestAsHex(representation.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static String etag(long version, String representation) {
+        return "\"" + version + "-" + representation + "\"";
+    }
+
+    /**
+     * Same comparison that checkNotModified makes, for the reactive reads that answer with a ResponseEntity.
+     */
+    public static boolean isNotModified(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (var candidate : ifNoneMatch.split(",")) {
+            candidate = candidate.trim();
+            if (candidate.equals("*") || candidate.equals(etag) || candidate.equals("W/" + etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+}
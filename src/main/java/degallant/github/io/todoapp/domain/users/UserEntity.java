@@ -1,5 +1,7 @@
 package degallant.github.io.todoapp.domain.users;
 
+import degallant.github.io.todoapp.authentication.PrincipalCacheEviction;
+import degallant.github.io.todoapp.authentication.TokenVersionListener;
 import degallant.github.io.todoapp.common.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
@@ -16,6 +18,7 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity(name = "users")
+@EntityListeners({PrincipalCacheEviction.class, TokenVersionListener.class})
 public class UserEntity extends BaseEntity {
 
     @Id
@@ -34,6 +37,17 @@ public class UserEntity extends BaseEntity {
     @Enumerated(value = EnumType.STRING)
     private Role role;
 
+    /**
+     * Access tokens made before the current version are no longer trusted.
+     */
+    @Builder.Default
+    @Column(name = "token_version")
+    private int tokenVersion = 0;
+
+    public void revokeTokens() {
+        tokenVersion++;
+    }
+
     public List<GrantedAuthority> roles() {
         return List.of(new SimpleGrantedAuthority(role.name()));
     }
@@ -2,6 +2,7 @@ package degallant.github.io.todoapp.exceptions;
 
 import com.fasterxml.jackson.annotation.JsonInclude;
 import degallant.github.io.todoapp.authentication.JwtTokenException;
+import degallant.github.io.todoapp.authentication.PasswordHashingRejectedException;
 import degallant.github.io.todoapp.i18n.Messages;
 import degallant.github.io.todoapp.openid.OpenIdExtractionException;
 import degallant.github.io.todoapp.sanitization.FieldAndErrorMessage;
@@ -10,6 +11,7 @@ import degallant.github.io.todoapp.sanitization.InvalidRequestException;
 import degallant.github.io.todoapp.sanitization.parsers.SortParsingException;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.ErrorResponse;
@@ -155,6 +157,22 @@ public class AppExceptionHandler {
 
     }
 
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ErrorResponse handlePasswordHashingRejectedException(PasswordHashingRejectedException exception) {
+
+        printStack(exception);
+
+        return ErrorResponseBuilder.from(exception)
+                .withTitle(messages.get("error.password_hashing_busy.title"))
+                .withDetail(messages.get("error.password_hashing_busy.detail"))
+                .withStatus(HttpStatus.SERVICE_UNAVAILABLE)
+                .withType(makeType("error.password_hashing_busy"))
+                .withHeader(HttpHeaders.RETRY_AFTER, "1")
+                .withDebug(debug)
+                .build();
+
+    }
+
     @ExceptionHandler(Exception.class)
     public ErrorResponse handleException(Exception exception) {
 
@@ -189,6 +207,14 @@ public class AppExceptionHandler {
             errorId = "error.token_unknown_subject";
         }
 
+        if (exception instanceof JwtTokenException.Revoked) {
+            errorId = "error.token_revoked";
+        }
+
+        if (exception instanceof JwtTokenException.NotRefresh) {
+            errorId = "error.token_not_refresh";
+        }
+
         String detail = messages.get(errorId, exception.getToken());
         URI type = makeType(errorId);
 
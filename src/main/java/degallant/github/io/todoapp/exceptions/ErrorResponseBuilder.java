@@ -16,6 +16,7 @@ public class ErrorResponseBuilder {
     private String title;
     private boolean debug;
     private final Map<String, Object> properties = new HashMap<>();
+    private final Map<String, String> headers = new HashMap<>();
 
     public static ErrorResponseBuilder from(Exception exception) {
         return new ErrorResponseBuilder(exception);
@@ -50,6 +51,11 @@ public class ErrorResponseBuilder {
         return this;
     }
 
+    public ErrorResponseBuilder withHeader(String name, String value) {
+        headers.put(name, value);
+        return this;
+    }
+
     public ErrorResponseBuilder withDebug(boolean debug) {
         this.debug = debug;
         return this;
@@ -75,6 +81,10 @@ public class ErrorResponseBuilder {
             builder.property(key, properties.get(key));
         }
 
+        for (String key : headers.keySet()) {
+            builder.header(key, headers.get(key));
+        }
+
         if (debug) {
             builder.property("exception", new ExceptionDetails(exception));
         }
@@ -0,0 +1,39 @@
+package degallant.github.io.todoapp.openid;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Loads the keys once from a JSON Web Key Set file, so tokens can be checked without network access (e.g. tests or offline environments).
+ */
+public class FileVerificationKeySource implements VerificationKeySource {
+
+    private final Map<String, PublicKey> keys;
+    private final Instant loadedAt;
+
+    public FileVerificationKeySource(Resource file, ObjectMapper mapper) {
+        try (var input = file.getInputStream()) {
+            this.keys = JsonWebKeys.parse(input.readAllBytes(), mapper);
+            this.loadedAt = Instant.now();
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Failed to load the open id keys from " + file, exception);
+        }
+    }
+
+    @Override
+    public Map<String, PublicKey> keys() {
+        return keys;
+    }
+
+    @Override
+    public Instant loadedAt() {
+        return loadedAt;
+    }
+
+}
@@ -0,0 +1,54 @@
+package degallant.github.io.todoapp.openid;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads the RSA keys of a JSON Web Key Set (RFC 7517), the format of https://www.googleapis.com/oauth2/v3/certs.
+ * <p>
+ * Keys of other types are ignored.
+ */
+public class JsonWebKeys {
+
+    private JsonWebKeys() {
+    }
+
+    public static Map<String, PublicKey> parse(byte[] json, ObjectMapper mapper) throws IOException {
+        var root = mapper.readTree(json);
+        var keys = new HashMap<String, PublicKey>();
+
+        for (JsonNode key : root.path("keys")) {
+            if (!"RSA".equals(key.path("kty").asText()) || !key.hasNonNull("kid")) {
+                continue;
+            }
+            keys.put(key.get("kid").asText(), toRsaKey(key));
+        }
+
+        if (keys.isEmpty()) {
+            throw new IOException("The key set has no RSA keys");
+        }
+
+        return Map.copyOf(keys);
+    }
+
+    private static PublicKey toRsaKey(JsonNode key) throws IOException {
+        try {
+            var modulus = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("n").asText()));
+            var exponent = new BigInteger(1, Base64.getUrlDecoder().decode(key.path("e").asText()));
+            return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(modulus, exponent));
+        } catch (GeneralSecurityException | IllegalArgumentException exception) {
+            throw new IOException("Invalid RSA key " + key.path("kid").asText(), exception);
+        }
+    }
+
+}
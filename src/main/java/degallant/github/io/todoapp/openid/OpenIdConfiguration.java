@@ -3,6 +3,12 @@ package degallant.github.io.todoapp.openid;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 
 @ConfigurationProperties("app.auth")
-public record OpenIdConfiguration(String googleClientId) {
+public record OpenIdConfiguration(
+        String googleClientId,
+        String googleKeysUrl,
+        String googleKeysFile,
+        long googleKeysRetrySeconds,
+        long googleKeysMaxAgeSeconds
+) {
 
 }
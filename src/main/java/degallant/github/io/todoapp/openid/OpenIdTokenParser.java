@@ -1,30 +1,50 @@
 package degallant.github.io.todoapp.openid;
 
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
-import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
-import com.google.api.client.http.javanet.NetHttpTransport;
+import com.google.api.client.json.JsonFactory;
 import com.google.api.client.json.gson.GsonFactory;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.security.GeneralSecurityException;
-import java.util.Collections;
+import java.security.PublicKey;
+import java.time.Clock;
+import java.util.Collection;
+import java.util.List;
 
+/**
+ * Checks google id tokens against the keys of a VerificationKeySource, so no request is made to google while a user logs in.
+ * <p>
+ * The claims are checked the same way as the GoogleIdTokenVerifier does: issuer, audience and time, with 5 minutes of clock skew.
+ */
 @Component
 public class OpenIdTokenParser {
 
-    private final GoogleIdTokenVerifier verifier;
+    private static final List<String> ISSUERS = List.of("accounts.google.com", "https://accounts.google.com");
+    private static final long CLOCK_SKEW_SECONDS = 300;
 
-    public OpenIdTokenParser(OpenIdConfiguration config) {
-        verifier = new GoogleIdTokenVerifier.Builder(new NetHttpTransport(), new GsonFactory())
-                .setAudience(Collections.singletonList(config.googleClientId()))
-                .build();
+    private final JsonFactory jsonFactory = GsonFactory.getDefaultInstance();
+    private final List<String> audience;
+    private final VerificationKeySource keySource;
+    private final Clock clock;
+
+    public OpenIdTokenParser(OpenIdConfiguration config, VerificationKeySource keySource) {
+        this(config, keySource, Clock.systemUTC());
+    }
+
+    OpenIdTokenParser(OpenIdConfiguration config, VerificationKeySource keySource, Clock clock) {
+        this.audience = List.of(config.googleClientId());
+        this.keySource = keySource;
+        this.clock = clock;
     }
 
     public OpenIdUser extract(String token) throws OpenIdExtractionException {
         GoogleIdToken idToken;
         try {
-            idToken = verifier.verify(token);
+            idToken = GoogleIdToken.parse(jsonFactory, token);
+            if (!isValid(idToken)) {
+                idToken = null;
+            }
         } catch (GeneralSecurityException | IOException | IllegalArgumentException e) {
             throw new OpenIdExtractionException.FailedParsing(token, e);
         }
@@ -41,4 +61,26 @@ public class OpenIdTokenParser {
         return new OpenIdUser(email, name, pictureUrl);
     }
 
+    private boolean isValid(GoogleIdToken idToken) throws GeneralSecurityException {
+        if (!idToken.verifyIssuer(ISSUERS) || !idToken.verifyAudience(audience) || !idToken.verifyTime(clock.millis(), CLOCK_SKEW_SECONDS)) {
+            return false;
+        }
+
+        for (PublicKey key : candidateKeys(idToken.getHeader().getKeyId())) {
+            if (idToken.verifySignature(key)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    private Collection<PublicKey> candidateKeys(String keyId) {
+        var keys = keySource.keys();
+        if (keyId != null && keys.containsKey(keyId)) {
+            return List.of(keys.get(keyId));
+        }
+        return keys.values();
+    }
+
 }
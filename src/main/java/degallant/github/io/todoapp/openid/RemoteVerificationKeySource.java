@@ -0,0 +1,131 @@
+package degallant.github.io.todoapp.openid;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps the keys of a remote JSON Web Key Set in memory and refreshes them in the background.
+ * <p>
+ * The keys are fetched as soon as the source starts and fetched again once 3/4 of their max-age
+ * (from the Cache-Control header) has passed, so a login never waits on the key set.
+ * If a refresh fails, the current keys keep being served, even if stale, and the refresh is retried after retryDelay.
+ * <p>
+ * Only when no keys were ever loaded, a login fetches them itself.
+ */
+@Slf4j
+public class RemoteVerificationKeySource implements VerificationKeySource, AutoCloseable {
+
+    private static final Pattern MAX_AGE = Pattern.compile("max-age=(\\d+)");
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final URI uri;
+    private final ObjectMapper mapper;
+    private final Duration retryDelay;
+    private final Duration defaultMaxAge;
+    private final Counter failures;
+    private final HttpClient client = HttpClient.newBuilder().connectTimeout(TIMEOUT).build();
+    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "openid-keys-refresh");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile LoadedKeys current;
+
+    public RemoteVerificationKeySource(URI uri, ObjectMapper mapper, Duration retryDelay, Duration defaultMaxAge, MeterRegistry meterRegistry) {
+        this.uri = uri;
+        this.mapper = mapper;
+        this.retryDelay = retryDelay;
+        this.defaultMaxAge = defaultMaxAge;
+        this.failures = Counter.builder("openid.keys.refresh.failures").register(meterRegistry);
+    }
+
+    public void start() {
+        scheduler.execute(this::refresh);
+    }
+
+    @Override
+    public Map<String, PublicKey> keys() {
+        var loaded = current;
+        if (loaded != null) {
+            return loaded.keys();
+        }
+        synchronized (this) {
+            if (current == null) {
+                tryFetch();
+            }
+        }
+        return current != null ? current.keys() : Map.of();
+    }
+
+    @Override
+    public Instant loadedAt() {
+        var loaded = current;
+        return loaded != null ? loaded.loadedAt() : null;
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+
+    private void refresh() {
+        var maxAge = tryFetch();
+        var delay = maxAge != null ? maxAge.multipliedBy(3).dividedBy(4) : retryDelay;
+        if (!scheduler.isShutdown()) {
+            scheduler.schedule(this::refresh, Math.max(delay.toMillis(), 1000), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @return the max-age of the fetched keys, or null if they could not be fetched
+     */
+    private Duration tryFetch() {
+        try {
+            var request = HttpRequest.newBuilder(uri).timeout(TIMEOUT).GET().build();
+            var response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                throw new IOException("Unexpected status " + response.statusCode());
+            }
+            current = new LoadedKeys(JsonWebKeys.parse(response.body(), mapper), Instant.now());
+            return maxAge(response.headers());
+        } catch (IOException | RuntimeException exception) {
+            failures.increment();
+            log.warn("Failed to fetch the open id keys from {}, {}", uri, current != null ? "serving the current ones" : "no keys loaded yet", exception);
+            return null;
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private Duration maxAge(HttpHeaders headers) {
+        return headers.firstValue("Cache-Control")
+                .map(MAX_AGE::matcher)
+                .filter(Matcher::find)
+                .map(matcher -> Duration.ofSeconds(Long.parseLong(matcher.group(1))))
+                .orElse(defaultMaxAge);
+    }
+
+    private record LoadedKeys(Map<String, PublicKey> keys, Instant loadedAt) {
+    }
+
+}
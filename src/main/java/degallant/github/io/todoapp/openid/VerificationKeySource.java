@@ -0,0 +1,22 @@
+package degallant.github.io.todoapp.openid;
+
+import java.security.PublicKey;
+import java.time.Instant;
+import java.util.Map;
+
+/**
+ * Provides the public keys used to check the signature of the open id tokens.
+ */
+public interface VerificationKeySource {
+
+    /**
+     * @return the keys by their key id (the kid in the header of the tokens), empty if no keys could be loaded yet
+     */
+    Map<String, PublicKey> keys();
+
+    /**
+     * @return when the current keys were loaded, or null if no keys were loaded yet
+     */
+    Instant loadedAt();
+
+}
@@ -0,0 +1,48 @@
+package degallant.github.io.todoapp.openid;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The keys of the open id tokens come from google_keys_file when it is set, otherwise from google_keys_url.
+ * <p>
+ * The age of the current keys is exposed as openid.keys.age, in seconds.
+ */
+@Configuration
+public class VerificationKeysConfiguration {
+
+    @Bean
+    public VerificationKeySource verificationKeySource(OpenIdConfiguration config, ResourceLoader resourceLoader, ObjectMapper mapper, MeterRegistry meterRegistry) {
+        VerificationKeySource source;
+
+        if (config.googleKeysFile() != null && !config.googleKeysFile().isBlank()) {
+            source = new FileVerificationKeySource(resourceLoader.getResource(config.googleKeysFile()), mapper);
+        } else {
+            var remote = new RemoteVerificationKeySource(
+                    URI.create(config.googleKeysUrl()),
+                    mapper,
+                    Duration.ofSeconds(config.googleKeysRetrySeconds()),
+                    Duration.ofSeconds(config.googleKeysMaxAgeSeconds()),
+                    meterRegistry
+            );
+            remote.start();
+            source = remote;
+        }
+
+        Gauge.builder("openid.keys.age", source, keys -> {
+            var loadedAt = keys.loadedAt();
+            return loadedAt == null ? Double.NaN : Duration.between(loadedAt, Instant.now()).toSeconds();
+        }).baseUnit("seconds").register(meterRegistry);
+
+        return source;
+    }
+
+}
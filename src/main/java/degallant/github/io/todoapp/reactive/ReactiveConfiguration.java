@@ -0,0 +1,11 @@
+package degallant.github.io.todoapp.reactive;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("app.reactive")
+public record ReactiveConfiguration(
+        boolean enabled,
+        int poolInitialSize,
+        int poolMaxSize
+) {
+}
@@ -0,0 +1,25 @@
+package degallant.github.io.todoapp.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.lang.annotation.*;
+
+/**
+ * A controller of the reactive reads, it only exists when app.reactive.enabled is true.
+ * <p>
+ * It is not a @Controller, so the mvc handler mapping ignores it and only the ReactiveControllerMapping serves it.
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Component
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public @interface ReactiveController {
+
+    /**
+     * A path variable that only matches ids, so literal paths next to it (e.g. /v1/tasks/export) still reach the mvc controllers.
+     */
+    String ID = "{id:[0-9a-fA-F-]{36}}";
+
+}
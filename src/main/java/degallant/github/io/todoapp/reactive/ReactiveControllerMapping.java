@@ -0,0 +1,33 @@
+package degallant.github.io.todoapp.reactive;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+import java.util.Set;
+
+/**
+ * Maps the @ReactiveController methods ahead of the mvc handler mapping.
+ * <p>
+ * The reactive controllers declare the same routes as the mvc ones, narrowed to the requests they can serve,
+ * any other request finds no match here and falls through to the mvc controllers instead of failing.
+ */
+public class ReactiveControllerMapping extends RequestMappingHandlerMapping {
+
+    public ReactiveControllerMapping() {
+        setOrder(-1);
+    }
+
+    @Override
+    protected boolean isHandler(Class<?> beanType) {
+        return AnnotatedElementUtils.hasAnnotation(beanType, ReactiveController.class);
+    }
+
+    @Override
+    protected HandlerMethod handleNoMatch(Set<RequestMappingInfo> infos, String lookupPath, HttpServletRequest request) {
+        return null;
+    }
+
+}
@@ -0,0 +1,54 @@
+package degallant.github.io.todoapp.reactive;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionConfiguration;
+import io.r2dbc.postgresql.PostgresqlConnectionFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * A pool of r2dbc connections to the same database as the datasource, read from the same spring.datasource properties.
+ * <p>
+ * The pool is not exposed as a ConnectionFactory bean on purpose, spring boot would take it as the
+ * database of the application and back off from creating the datasource that jpa and flyway use.
+ */
+public class ReactiveDatabase {
+
+    private static final int DEFAULT_PORT = 5432;
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactiveDatabase(DataSourceProperties dataSource, ReactiveConfiguration configuration) {
+        //jdbc:postgresql://host:port/database?currentSchema=schema
+        var url = UriComponentsBuilder.fromUriString(dataSource.determineUrl().substring("jdbc:".length())).build();
+
+        var connection = PostgresqlConnectionConfiguration.builder()
+                .host(url.getHost())
+                .port(url.getPort() != -1 ? url.getPort() : DEFAULT_PORT)
+                .database(url.getPath() != null ? url.getPath().substring(1) : null)
+                .schema(url.getQueryParams().getFirst("currentSchema"))
+                .username(dataSource.determineUsername())
+                .password(dataSource.determinePassword())
+                .build();
+
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(new PostgresqlConnectionFactory(connection))
+                .initialSize(configuration.poolInitialSize())
+                .maxSize(configuration.poolMaxSize())
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    public DatabaseClient client() {
+        return client;
+    }
+
+    @PreDestroy
+    public void close() {
+        pool.dispose();
+    }
+
+}
@@ -0,0 +1,45 @@
+package degallant.github.io.todoapp.reactive;
+
+import degallant.github.io.todoapp.HeaderValidation;
+import degallant.github.io.todoapp.cache.NearCacheManager;
+import degallant.github.io.todoapp.cache.ReactiveResponseCache;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
+
+/**
+ * Serves the reads of tasks and comments without holding a request thread while they wait on the
+ * database or on redis, when app.reactive.enabled is true.
+ * <p>
+ * The @ReactiveController methods return a Mono, the request thread goes back to tomcat's pool as soon as
+ * the query is sent, and the response is written when the r2dbc or redis driver completes it.
+ * Writes and any read the reactive controllers do not serve keep going through the mvc controllers.
+ */
+@Slf4j
+@Configuration
+@ConditionalOnProperty(name = "app.reactive.enabled", havingValue = "true")
+public class ReactiveReadsConfiguration {
+
+    @Bean
+    public ReactiveDatabase reactiveDatabase(DataSourceProperties dataSource, ReactiveConfiguration configuration) {
+        log.info("Serving reads of tasks and comments with r2dbc");
+        return new ReactiveDatabase(dataSource, configuration);
+    }
+
+    @Bean
+    public ReactiveResponseCache reactiveResponseCache(NearCacheManager cacheManager, ReactiveRedisConnectionFactory connectionFactory, RedisCacheConfiguration redisCacheConfiguration) {
+        return new ReactiveResponseCache(cacheManager, connectionFactory, redisCacheConfiguration);
+    }
+
+    @Bean
+    public ReactiveControllerMapping reactiveControllerMapping(HeaderValidation headerValidation) {
+        var mapping = new ReactiveControllerMapping();
+        mapping.setInterceptors(headerValidation);
+        return mapping;
+    }
+
+}
@@ -27,12 +27,24 @@ public class FieldValidator {
         }
     }
 
+    public void isBetween(int value, int min, int max) throws InvalidValueException {
+        if (value < min || value > max) {
+            throwError("validation.is_between", value, min, max);
+        }
+    }
+
     public void isNotEmpty(String value) throws InvalidValueException {
         if (value == null || value.isEmpty()) {
             throwError("validation.is_empty");
         }
     }
 
+    public void hasAtMost(String value, int length) throws InvalidValueException {
+        if (value.length() > length) {
+            throwError("validation.is_too_long", length);
+        }
+    }
+
     public void isURL(String value) throws InvalidValueException {
         try {
             new URL(value).toURI();
@@ -1,7 +1,7 @@
 package degallant.github.io.todoapp.sanitization.parsers;
 
+import degallant.github.io.todoapp.authentication.ApiKeyCache;
 import degallant.github.io.todoapp.authentication.ApiKeyEntity;
-import degallant.github.io.todoapp.authentication.ApiKeyRepository;
 import degallant.github.io.todoapp.sanitization.InvalidValueException;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
@@ -16,11 +16,11 @@ import java.util.UUID;
 @RequiredArgsConstructor
 public class ApiKeyFieldParser {
 
-    private final ApiKeyRepository repository;
+    private final ApiKeyCache cache;
 
     public ApiKeyEntity toApiKeyOrThrowInvalidValue(String id) throws InvalidValueException {
         try {
-            return repository.findByIdAndDeletedAtIsNull(UUID.fromString(id)).orElseThrow();
+            return cache.find(UUID.fromString(id)).orElseThrow();
         } catch (IllegalArgumentException | NoSuchElementException exception) {
             throw new InvalidValueException("validation.do_not_exist", id);
         }
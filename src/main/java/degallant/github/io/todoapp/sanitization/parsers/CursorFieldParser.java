@@ -0,0 +1,93 @@
+package degallant.github.io.todoapp.sanitization.parsers;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.common.KeysetCursor;
+import degallant.github.io.todoapp.sanitization.InvalidValueException;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Converts a {@link KeysetCursor} from and to the opaque token sent to the client.
+ * The token is just the cursor values as a JSON encoded in base64 url safe.
+ *
+ * @noinspection ClassCanBeRecord
+ */
+@Component
+@RequiredArgsConstructor
+public class CursorFieldParser {
+
+    private final ObjectMapper mapper;
+
+    public KeysetCursor toCursorOrThrowInvalidValue(String value, Sort sort, Class<?> type) throws InvalidValueException {
+        try {
+            Map<String, String> rawValues = mapper.readValue(Base64.getUrlDecoder().decode(value), new TypeReference<>() {
+            });
+
+            if (rawValues.size() != sort.stream().count()) {
+                throw new InvalidValueException("validation.invalid_cursor", value);
+            }
+
+            var values = new LinkedHashMap<String, Object>();
+            for (Sort.Order order : sort) {
+                var property = order.getProperty();
+                var descriptor = BeanUtils.getPropertyDescriptor(type, property);
+                if (descriptor == null || !rawValues.containsKey(property)) {
+                    throw new InvalidValueException("validation.invalid_cursor", value);
+                }
+                values.put(property, toValue(rawValues.get(property), descriptor.getPropertyType()));
+            }
+
+            return new KeysetCursor(values);
+        } catch (IOException | IllegalArgumentException | DateTimeParseException exception) {
+            throw new InvalidValueException(exception, "validation.invalid_cursor", value);
+        }
+    }
+
+    public String toToken(KeysetCursor cursor) {
+        var rawValues = new LinkedHashMap<String, String>();
+        cursor.values().forEach((property, value) -> rawValues.put(property, value == null ? null : value.toString()));
+        try {
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(mapper.writeValueAsBytes(rawValues));
+        } catch (JsonProcessingException exception) {
+            throw new RuntimeException(exception);
+        }
+    }
+
+    private Object toValue(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+
+        if (UUID.class.equals(type)) {
+            return UUID.fromString(value);
+        }
+
+        if (OffsetDateTime.class.equals(type)) {
+            return OffsetDateTime.parse(value);
+        }
+
+        if (LocalDate.class.equals(type)) {
+            return LocalDate.parse(value);
+        }
+
+        if (Boolean.class.equals(type)) {
+            return Boolean.valueOf(value);
+        }
+
+        return value;
+    }
+
+}
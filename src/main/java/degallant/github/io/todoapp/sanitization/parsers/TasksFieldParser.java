@@ -27,6 +27,18 @@ public class TasksFieldParser {
         }
     }
 
+    /**
+     * Same as toTaskOrThrowNoSuchElement, but with the tags, parent and project already loaded.
+     */
+    public TaskEntity toTaskWithRelationsOrThrowNoSuchElement(String id, UserEntity user) throws NoSuchElementException {
+        try {
+            var taskId = UUID.fromString(id);
+            return repository.findWithRelationsByIdAndUserIdAndDeletedAtIsNull(taskId, user.getId()).orElseThrow();
+        } catch (IllegalArgumentException | NoSuchElementException exception) {
+            throw new NoSuchElementException("Task with id " + id + " not found", exception);
+        }
+    }
+
     public TaskEntity toTaskOrThrowInvalidValue(String id, UserEntity user) throws InvalidValueException {
         try {
             return parse(id, user);
@@ -0,0 +1,29 @@
+package degallant.github.io.todoapp.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Condition;
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+/**
+ * Matches when app.threads.mode is virtual and the running java version has virtual threads.
+ * <p>
+ * Asking for virtual threads on an older java only logs a warning, and the app keeps running on platform threads.
+ */
+@Slf4j
+public class OnVirtualThreadsCondition implements Condition {
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        var mode = context.getEnvironment().getProperty("app.threads.mode", "platform");
+        if (!"virtual".equalsIgnoreCase(mode)) {
+            return false;
+        }
+        if (!VirtualThreads.isSupported()) {
+            log.warn("app.threads.mode is virtual, but java {} has no virtual threads, using platform threads", Runtime.version());
+            return false;
+        }
+        return true;
+    }
+
+}
@@ -0,0 +1,53 @@
+package degallant.github.io.todoapp.threads;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Makes virtual threads through reflection, since the app is compiled for java 17 and virtual threads only exist from java 21.
+ */
+public class VirtualThreads {
+
+    private VirtualThreads() {
+    }
+
+    public static boolean isSupported() {
+        try {
+            Thread.class.getMethod("ofVirtual");
+            return true;
+        } catch (NoSuchMethodException exception) {
+            return false;
+        }
+    }
+
+    /**
+     * @param prefix the name of the threads, followed by a counter
+     */
+    public static ThreadFactory factory(String prefix) {
+        try {
+            var builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            var builderClass = Class.forName("java.lang.Thread$Builder");
+            builder = builderClass.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderClass.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException exception) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this java version", exception);
+        }
+    }
+
+    /**
+     * @return an executor that starts a new virtual thread for each task
+     */
+    public static ExecutorService newThreadPerTaskExecutor(String prefix) {
+        try {
+            var method = Executors.class.getMethod("newThreadPerTaskExecutor", ThreadFactory.class);
+            return (ExecutorService) method.invoke(null, factory(prefix));
+        } catch (NoSuchMethodException | IllegalAccessException exception) {
+            throw new UnsupportedOperationException("Virtual threads are not supported by this java version", exception);
+        } catch (InvocationTargetException exception) {
+            throw new IllegalStateException(exception.getCause());
+        }
+    }
+
+}
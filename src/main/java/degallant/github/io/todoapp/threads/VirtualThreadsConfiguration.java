@@ -0,0 +1,67 @@
+package degallant.github.io.todoapp.threads;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Conditional;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.concurrent.ConcurrentTaskScheduler;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Runs the requests, the @Async tasks and the @Scheduled tasks on virtual threads when app.threads.mode is virtual.
+ * <p>
+ * A request blocked on jdbc, redis or bcrypt then no longer holds one of the threads of tomcat's pool,
+ * so the amount of concurrent requests is no longer capped by server.tomcat.threads.max.
+ * <p>
+ * Blocking inside a synchronized block pins the virtual thread to its carrier thread,
+ * run with -Djdk.tracePinnedThreads=short to find where it happens.
+ */
+@Slf4j
+@Configuration
+@Conditional(OnVirtualThreadsCondition.class)
+public class VirtualThreadsConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService requestsExecutor() {
+        log.info("Handling requests on virtual threads");
+        return VirtualThreads.newThreadPerTaskExecutor("http-virtual-");
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsProtocolHandlerCustomizer(@Qualifier("requestsExecutor") ExecutorService requestsExecutor) {
+        return protocolHandler -> protocolHandler.setExecutor(requestsExecutor);
+    }
+
+    /**
+     * The executors behind the @Async and @Scheduled tasks are beans of their own, so they are shut down with the context.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService tasksExecutor() {
+        return VirtualThreads.newThreadPerTaskExecutor("task-virtual-");
+    }
+
+    @Bean(name = {TaskExecutionAutoConfiguration.APPLICATION_TASK_EXECUTOR_BEAN_NAME, "taskExecutor"})
+    public AsyncTaskExecutor applicationTaskExecutor(@Qualifier("tasksExecutor") ExecutorService tasksExecutor) {
+        return new TaskExecutorAdapter(tasksExecutor);
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService schedulingExecutor() {
+        return Executors.newSingleThreadScheduledExecutor(VirtualThreads.factory("scheduling-virtual-"));
+    }
+
+    @Bean
+    public TaskScheduler taskScheduler(ScheduledExecutorService schedulingExecutor) {
+        return new ConcurrentTaskScheduler(schedulingExecutor);
+    }
+
+}
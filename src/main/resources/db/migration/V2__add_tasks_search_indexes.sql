@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- case-insensitive substring filter on title: lower(title) LIKE '%...%'
+CREATE INDEX tasks_title_trgm_idx ON tasks USING gin (lower(title) gin_trgm_ops);
+
+-- full-text search on title and description, must match the expression of the task_search_* functions
+CREATE INDEX tasks_search_idx ON tasks USING gin (to_tsvector('simple', title || ' ' || coalesce(description, '')));
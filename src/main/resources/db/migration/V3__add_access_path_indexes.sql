@@ -0,0 +1,22 @@
+-- api keys are looked up by id on every request, but the table had no primary key
+ALTER TABLE api_keys ADD PRIMARY KEY (id);
+CREATE INDEX api_keys_name_idx ON api_keys (name);
+
+-- tasks listing: filter by user, sorted by id (default and cursor tie-breaker), title or due date
+CREATE INDEX tasks_user_id_active_idx ON tasks (user_id, id) WHERE deleted_at IS NULL;
+CREATE INDEX tasks_user_id_title_active_idx ON tasks (user_id, title, id) WHERE deleted_at IS NULL;
+CREATE INDEX tasks_user_id_due_date_active_idx ON tasks (user_id, due_date, id) WHERE deleted_at IS NULL;
+
+-- sub tasks of a task
+CREATE INDEX tasks_parent_id_idx ON tasks (parent_id);
+
+CREATE INDEX tags_user_id_active_idx ON tags (user_id) WHERE deleted_at IS NULL;
+
+CREATE INDEX projects_user_id_active_idx ON projects (user_id) WHERE deleted_at IS NULL;
+
+-- comments of a task, optionally from a given commenter
+CREATE INDEX comments_task_id_user_id_idx ON comments (task_id, user_id);
+
+-- tags of a task, and tasks of a tag
+CREATE INDEX tasks_tags_task_id_tag_id_idx ON tasks_tags (task_id, tag_id);
+CREATE INDEX tasks_tags_tag_id_idx ON tasks_tags (tag_id);
@@ -0,0 +1,5 @@
+-- bumped whenever the tokens of a user must stop being trusted (e.g. deleted or promoted)
+ALTER TABLE users ADD COLUMN token_version INTEGER NOT NULL DEFAULT 0;
+
+-- users whose tokens were revoked recently, reloaded by every instance
+CREATE INDEX users_revoked_tokens_idx ON users (updated_at) WHERE token_version > 0;
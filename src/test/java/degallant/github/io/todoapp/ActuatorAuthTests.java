@@ -0,0 +1,79 @@
+package degallant.github.io.todoapp;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.reactive.server.StatusAssertions;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import java.time.OffsetDateTime;
+
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+public class ActuatorAuthTests extends IntegrationTest {
+
+    @Autowired
+    private WebTestClient client;
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Test
+    public void scrape_checksSecretHashOnlyOnce() {
+
+        clearInvocations(passwordEncoder);
+
+        scrape("12345").isOk();
+        scrape("12345").isOk();
+        scrape("12345").isOk();
+
+        verify(passwordEncoder, times(1)).matches(eq("12345"), anyString());
+
+    }
+
+    @Test
+    public void scrape_failsWithWrongSecretAfterRightOne() {
+
+        scrape("12345").isOk();
+        scrape("54321").isForbidden();
+
+    }
+
+    @Test
+    public void scrape_failsOnceKeyIsDeleted() {
+
+        scrape("12345").isOk();
+
+        var entity = apiKeyRepository.findById(apiKey).orElseThrow();
+        entity.setDeletedAt(OffsetDateTime.now());
+        apiKeyRepository.save(entity);
+
+        scrape("12345").isForbidden();
+
+    }
+
+    @Test
+    public void scrape_failsOnceSecretChanges() {
+
+        scrape("12345").isOk();
+
+        var entity = apiKeyRepository.findById(apiKey).orElseThrow();
+        entity.setSecret(passwordEncoder.encode("67890"));
+        apiKeyRepository.save(entity);
+
+        scrape("12345").isForbidden();
+        scrape("67890").isOk();
+
+    }
+
+    private StatusAssertions scrape(String secret) {
+        return client.get().uri("/actuator/health")
+                .headers(headers -> headers.setBasicAuth(apiKey.toString(), secret))
+                .exchange()
+                .expectStatus();
+    }
+
+}
@@ -20,6 +20,24 @@ public class JwtTokenTests extends IntegrationTest {
 
     }
 
+    @Test
+    public void authentication_fails_whenVerifiedJwtTokenExpires() throws InterruptedException {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var expiresAt = Instant.now().plus(2, ChronoUnit.SECONDS);
+        var jwtToken = token.make().withSubject(userId).withExpiresAt(expiresAt).build();
+
+        request.withToken(jwtToken).to("tasks").get().isOk();
+        request.withToken(jwtToken).to("tasks").get().isOk();
+
+        Thread.sleep(Math.max(0, expiresAt.toEpochMilli() - System.currentTimeMillis()) + 1000);
+
+        request.withToken(jwtToken).to("tasks")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_expired"));
+
+    }
+
     @Test
     public void authentication_fails_whenJwtTokenIsEmpty() {
 
@@ -0,0 +1,246 @@
+package degallant.github.io.todoapp;
+
+import degallant.github.io.todoapp.authentication.ApiKeyRepository;
+import degallant.github.io.todoapp.domain.comments.CommentsRepository;
+import degallant.github.io.todoapp.domain.projects.ProjectsRepository;
+import degallant.github.io.todoapp.domain.tags.TagsRepository;
+import degallant.github.io.todoapp.domain.tasks.ListTasksService;
+import degallant.github.io.todoapp.domain.tasks.TaskEntity;
+import degallant.github.io.todoapp.domain.tasks.TasksRepository;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+/**
+ * Runs EXPLAIN on the SQL generated by the repository queries and fails if any of them scans a whole table.
+ * <p>
+ * The data set is small, so sequential scans are disabled for the EXPLAIN. That way postgres
+ * only falls back to one when no index can serve the query.
+ */
+public class QueryPlanTests extends IntegrationTest {
+
+    private static final StatementRecorder RECORDER = new StatementRecorder();
+
+    @TestConfiguration
+    static class RecorderConfiguration {
+
+        @Bean
+        public HibernatePropertiesCustomizer statementRecorder() {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, RECORDER);
+        }
+
+    }
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private TagsRepository tagsRepository;
+
+    @Autowired
+    private ProjectsRepository projectsRepository;
+
+    @Autowired
+    private CommentsRepository commentsRepository;
+
+    @Autowired
+    private ApiKeyRepository apiKeyRepository;
+
+    @Autowired
+    private ListTasksService listService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    private UserEntity user;
+    private UUID taskId;
+    private UUID tagId;
+    private UUID projectId;
+    private UUID commentId;
+
+    @BeforeEach
+    public void seed() {
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        taskId = request.asUser(DEFAULT_USER).to("tasks")
+                .withField("title", "Task A")
+                .withField("project_id", projectId)
+                .withField("tags_ids", tags.asString())
+                .post().isCreated().getLocationUUID();
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Subtask A", "parent_id", taskId.toString());
+        commentId = entityRequest.asUser(DEFAULT_USER).commentOnTask(taskId, "Comment A").uuid();
+        entityRequest.asUser(ANOTHER_USER).makeTasks("Task B", "Task C");
+
+        tagId = tags.get(0).uuid();
+        user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, complete, due_date, user_id, created_at, updated_at, deleted_at)
+                SELECT gen_random_uuid(), 'Task ' || i, i % 2 = 0, now() + i * interval '1 hour', u.id, now(), now(),
+                       CASE WHEN i % 10 = 0 THEN now() END
+                FROM generate_series(1, 2000) AS i, users u
+                """);
+        jdbcTemplate.execute("ANALYZE");
+    }
+
+    @Test
+    public void tasks_queriesUseIndexes() {
+
+        assertNoSeqScan(() -> tasksRepository.findByIdAndUserIdAndDeletedAtIsNull(taskId, user.getId()), taskId, user.getId());
+
+        assertNoSeqScan(() -> tasksRepository.findWithRelationsByIdAndUserIdAndDeletedAtIsNull(taskId, user.getId()), taskId, user.getId());
+
+        assertNoSeqScan(() -> tasksRepository.findByParentId(taskId), taskId);
+
+        assertNoSeqScan(() -> tasksRepository.findAll(listService.matchesAnyOf(user, null, null, null, null), PageRequest.of(1, 10)),
+                user.getId(), 10, 10);
+
+        var today = OffsetDateTime.now();
+        assertNoSeqScan(() -> tasksRepository.findAll(listService.matchesAnyOf(user, null, null, true, today.toLocalDate()), PageRequest.of(0, 10, Sort.by("dueDate"))),
+                user.getId(), true, today, today.plusDays(1), 10);
+
+        assertNoSeqScan(() -> tasksRepository.findSummaries(listService.matchesAnyOf(user, null, null, null, null), PageRequest.of(1, 10, Sort.by("title", "id"))),
+                user.getId(), 10, 10);
+
+        assertNoSeqScan(() -> tasksRepository.findSummariesSlice(listService.matchesAnyOf(user, null, null, null, null), PageRequest.of(0, 10, Sort.by("title", "id"))),
+                user.getId(), 11);
+
+        assertNoSeqScan(() -> tasksRepository.countUpTo(listService.matchesAnyOf(user, null, null, null, null), 1000),
+                user.getId(), 1001);
+
+        assertNoSeqScan(() -> load(taskId).getSubTasks().size(), taskId);
+
+        assertNoSeqScan(() -> load(taskId).getTags().size(), taskId);
+
+        assertNoSeqScan(() -> load(taskId).getComments().size(), taskId);
+
+    }
+
+    @Test
+    public void tags_queriesUseIndexes() {
+
+        assertNoSeqScan(() -> tagsRepository.findByIdAndUserIdAndDeletedAtIsNull(tagId, user.getId()), tagId, user.getId());
+        assertNoSeqScan(() -> tagsRepository.findByUserIdAndDeletedAtIsNull(user.getId()), user.getId());
+        assertNoSeqScan(() -> tagsRepository.findAllByUserIdAndId(user.getId(), List.of(tagId)), user.getId(), tagId);
+
+    }
+
+    @Test
+    public void projects_queriesUseIndexes() {
+
+        assertNoSeqScan(() -> projectsRepository.findByIdAndUserIdAndDeletedAtIsNull(projectId, user.getId()), projectId, user.getId());
+        assertNoSeqScan(() -> projectsRepository.findByUserIdAndDeletedAtIsNull(user.getId()), user.getId());
+
+    }
+
+    @Test
+    public void comments_queriesUseIndexes() {
+
+        assertNoSeqScan(() -> commentsRepository.findBy(taskId, commentId, user.getId()), taskId, commentId, user.getId());
+        assertNoSeqScan(() -> commentsRepository.findByTaskIdAndCommenterId(taskId, user.getId()), taskId, user.getId());
+        assertNoSeqScan(() -> commentsRepository.findByIdAndCommenterIdAndTaskId(commentId, user.getId(), taskId), commentId, user.getId(), taskId);
+
+    }
+
+    @Test
+    public void usersAndApiKeys_queriesUseIndexes() {
+
+        assertNoSeqScan(() -> usersRepository.findByEmail(DEFAULT_USER), DEFAULT_USER);
+        assertNoSeqScan(() -> usersRepository.findByIdAndDeletedAtIsNull(user.getId()), user.getId());
+        assertNoSeqScan(() -> apiKeyRepository.findByIdAndDeletedAtIsNull(apiKey), apiKey);
+        assertNoSeqScan(() -> apiKeyRepository.findByName("test-key"), "test-key");
+
+    }
+
+    private TaskEntity load(UUID id) {
+        var task = tasksRepository.findById(id).orElseThrow();
+        RECORDER.clear();
+        return task;
+    }
+
+    /**
+     * @param parameters the values of the placeholders of the recorded statements, in order
+     */
+    private void assertNoSeqScan(Supplier<?> query, Object... parameters) {
+        RECORDER.clear();
+        transactionTemplate.execute(status -> query.get());
+        var statements = RECORDER.selects();
+
+        assertFalse(statements.isEmpty(), "no statement was recorded");
+
+        for (var sql : statements) {
+            var plan = explain(sql, parameters);
+            assertFalse(plan.contains("Seq Scan"), sql + "\n" + plan);
+        }
+    }
+
+    private String explain(String sql, Object... parameters) {
+        var placeholders = (int) sql.chars().filter(character -> character == '?').count();
+        var values = Arrays.copyOf(parameters, placeholders);
+        return jdbcTemplate.execute((ConnectionCallback<String>) connection -> {
+            try (var settings = connection.createStatement()) {
+                settings.execute("SET enable_seqscan = off");
+                try (var statement = connection.prepareStatement("EXPLAIN " + sql)) {
+                    for (int index = 0; index < values.length; index++) {
+                        statement.setObject(index + 1, values[index]);
+                    }
+                    var lines = new ArrayList<String>();
+                    try (var result = statement.executeQuery()) {
+                        while (result.next()) {
+                            lines.add(result.getString(1));
+                        }
+                    }
+                    return String.join("\n", lines);
+                } finally {
+                    settings.execute("RESET enable_seqscan");
+                }
+            }
+        });
+    }
+
+    private static class StatementRecorder implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        public void clear() {
+            statements.clear();
+        }
+
+        public List<String> selects() {
+            return statements.stream().filter(sql -> sql.trim().toLowerCase().startsWith("select")).toList();
+        }
+
+    }
+
+}
@@ -0,0 +1,66 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiKeyAccessBufferTests extends IntegrationTest {
+
+    @Autowired
+    private ApiKeyAccessBuffer buffer;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void lastAccess_isWrittenOnlyWhenFlushed() {
+
+        buffer.flush();
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+
+        assertEquals(1, buffer.pendingCount());
+        assertNull(apiKeyRepository.findById(apiKey).orElseThrow().getLastAccess());
+
+        buffer.flush();
+
+        assertEquals(0, buffer.pendingCount());
+        assertNotNull(apiKeyRepository.findById(apiKey).orElseThrow().getLastAccess());
+
+    }
+
+    @Test
+    public void lastAccess_keepsTheLatestAccess() {
+
+        buffer.flush();
+
+        var latest = OffsetDateTime.now();
+        buffer.record(apiKey, latest);
+        buffer.record(apiKey, latest.minusMinutes(5));
+        buffer.flush();
+
+        var stored = apiKeyRepository.findById(apiKey).orElseThrow().getLastAccess();
+        assertTrue(stored.isAfter(latest.minusSeconds(1)));
+
+        buffer.record(apiKey, latest.minusMinutes(10));
+        buffer.flush();
+
+        assertEquals(stored, apiKeyRepository.findById(apiKey).orElseThrow().getLastAccess());
+
+    }
+
+    @Test
+    public void buffer_hasMeters() {
+
+        assertNotNull(meterRegistry.find("apikey.last_access.pending").gauge());
+        assertNotNull(meterRegistry.find("apikey.last_access.flush").timer());
+
+    }
+
+}
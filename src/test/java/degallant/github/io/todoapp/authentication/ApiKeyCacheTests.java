@@ -0,0 +1,89 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ApiKeyCacheTests extends IntegrationTest {
+
+    @Autowired
+    private ApiKeyCache apiKeyCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    public void find_resolvesKeyOnlyOnce() {
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        assertTrue(apiKeyCache.find(apiKey).isPresent());
+
+        statistics.clear();
+        assertTrue(apiKeyCache.find(apiKey).isPresent());
+        assertEquals(0, statistics.getQueryExecutionCount());
+
+    }
+
+    @Test
+    public void find_cachesUnknownKeys() {
+
+        var unknown = UUID.randomUUID();
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        assertTrue(apiKeyCache.find(unknown).isEmpty());
+
+        statistics.clear();
+        assertTrue(apiKeyCache.find(unknown).isEmpty());
+        assertEquals(0, statistics.getQueryExecutionCount());
+
+    }
+
+    @Test
+    public void find_doesNotReturnSoftDeletedKey() {
+
+        assertTrue(apiKeyCache.find(apiKey).isPresent());
+
+        var entity = apiKeyRepository.findById(apiKey).orElseThrow();
+        entity.setDeletedAt(OffsetDateTime.now());
+        apiKeyRepository.save(entity);
+
+        assertTrue(apiKeyCache.find(apiKey).isEmpty());
+
+    }
+
+    @Test
+    public void find_returnsKeyCreatedAfterBeingUnknown() {
+
+        var id = UUID.randomUUID();
+        assertTrue(apiKeyCache.find(id).isEmpty());
+
+        var entity = ApiKeyEntity.builder().name("new-key").secret("secret").build();
+        entity.setId(id);
+        apiKeyRepository.save(entity);
+
+        assertTrue(apiKeyCache.find(id).isPresent());
+
+    }
+
+    @Test
+    public void cache_hasMeters() {
+
+        apiKeyCache.find(apiKey);
+
+        assertNotNull(meterRegistry.find("cache.gets").tag("cache", ApiKeyCache.CACHE_NAME).functionCounter());
+
+    }
+
+}
@@ -0,0 +1,101 @@
+package degallant.github.io.todoapp.authentication;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import degallant.github.io.todoapp.cache.CacheInvalidationBus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the throughput of verifying the same jwt token by building a verifier on every call (how it used to be),
+ * by reusing a single verifier, and through JwtToken, which answers repeated tokens from its cache.
+ * <p>
+ * It also measures the revocation check that follows every verification, for a family that was not revoked
+ * (answered by the bloom filter) and for one that was (answered by the exact map), both should be well under a microsecond.
+ * <p>
+ * Run with ./gradlew benchmark, JMH runs in the test process (no fork), so the numbers are only good for comparison.
+ */
+@Tag("benchmark")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 1)
+@Measurement(iterations = 3, time = 1)
+public class JwtTokenBenchmark {
+
+    private static final String SIGN_KEY = "benchmark-sign-key-0123456789";
+    private static final String ISSUER = "https://todoapp.com/api";
+
+    private JwtToken jwtToken;
+    private Algorithm signature;
+    private JWTVerifier verifier;
+    private String token;
+    private RevokedFamilies revokedFamilies;
+    private UUID activeFamily;
+    private UUID revokedFamily;
+
+    @Setup
+    public void setUp() {
+        var config = new AuthenticationConfiguration(SIGN_KEY, ISSUER, 60, 60, 10_000, 2, 32, "memory", 30_000, false);
+        jwtToken = new JwtToken(config);
+        signature = Algorithm.HMAC256(SIGN_KEY);
+        verifier = JWT.require(signature).withIssuer(ISSUER).build();
+        token = jwtToken.make().withSubject(UUID.randomUUID()).asAccess().build();
+
+        revokedFamilies = new RevokedFamilies(new InMemoryRefreshTokenStore(), new CacheInvalidationBus(null, null), config, new SimpleMeterRegistry());
+        for (int index = 0; index < 1000; index++) {
+            revokedFamilies.add(UUID.randomUUID(), config.refreshExpiration());
+        }
+        revokedFamily = UUID.randomUUID();
+        revokedFamilies.add(revokedFamily, config.refreshExpiration());
+        activeFamily = UUID.randomUUID();
+    }
+
+    @Benchmark
+    public String cold() {
+        return JWT.require(signature).withIssuer(ISSUER).build().verify(token).getSubject();
+    }
+
+    @Benchmark
+    public String reusedVerifier() {
+        return verifier.verify(token).getSubject();
+    }
+
+    @Benchmark
+    public UUID cached() {
+        return jwtToken.parseToUserId(token);
+    }
+
+    @Benchmark
+    public boolean revocationCheck() {
+        return revokedFamilies.isRevoked(activeFamily);
+    }
+
+    @Benchmark
+    public boolean revocationCheckOfRevoked() {
+        return revokedFamilies.isRevoked(revokedFamily);
+    }
+
+    @Test
+    public void run() throws Exception {
+        var options = new OptionsBuilder()
+                .include(getClass().getName())
+                .forks(0)
+                .build();
+
+        var results = new Runner(options).run();
+
+        assertEquals(5, results.size());
+    }
+
+}
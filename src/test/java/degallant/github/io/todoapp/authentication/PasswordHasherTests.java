@@ -0,0 +1,98 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.domain.users.Role;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+
+public class PasswordHasherTests extends IntegrationTest {
+
+    @SpyBean
+    private PasswordEncoder passwordEncoder;
+
+    @Autowired
+    private PasswordHasher passwordHasher;
+
+    @Autowired
+    private AuthenticationConfiguration config;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @AfterEach
+    public void releaseHashes() {
+        release.countDown();
+    }
+
+    @Test
+    public void login_isRejected_whenHashingQueueIsFull() throws Exception {
+
+        usersRepository.save(UserEntity.builder()
+                .email(DEFAULT_USER)
+                .name("Default")
+                .password(passwordEncoder.encode("changeme"))
+                .role(Role.ROLE_USER)
+                .build());
+
+        var hash = passwordEncoder.encode("slow");
+        doAnswer(invocation -> release.await(30, TimeUnit.SECONDS)).when(passwordEncoder).matches(eq("slow"), anyString());
+
+        var running = new ArrayList<CompletableFuture<Boolean>>();
+        for (int index = 0; index < config.passwordThreads() + config.passwordQueueSize(); index++) {
+            running.add(CompletableFuture.supplyAsync(() -> passwordHasher.matches("slow", hash), runnable -> new Thread(runnable).start()));
+        }
+        waitUntilQueued(config.passwordQueueSize());
+
+        var response = request.asGuest().to("auth/email")
+                .withField("email", DEFAULT_USER)
+                .withField("password", "changeme")
+                .post().isServiceUnavailable()
+                .hasField("$.type", contains("error.password_hashing_busy"))
+                .getHeaders();
+        assertEquals("1", response.getFirst(HttpHeaders.RETRY_AFTER));
+        assertThrows(PasswordHashingRejectedException.class, () -> passwordHasher.matches("changeme", hash));
+
+        release.countDown();
+        for (var future : running) {
+            assertTrue(future.get(10, TimeUnit.SECONDS));
+        }
+
+        request.asGuest().to("auth/email")
+                .withField("email", DEFAULT_USER)
+                .withField("password", "changeme")
+                .post().isOk();
+
+        assertNotNull(meterRegistry.find("auth.password.queue_wait").timer());
+        assertNotNull(meterRegistry.find("auth.password.hash").timer());
+        assertNotNull(meterRegistry.find("auth.password.rejected").counter());
+
+    }
+
+    private void waitUntilQueued(int amount) throws InterruptedException {
+        var queued = meterRegistry.get("auth.password.queued").gauge();
+        var deadline = System.currentTimeMillis() + 10_000;
+        while (queued.value() < amount) {
+            assertTrue(System.currentTimeMillis() < deadline, "Passwords were not queued in time");
+            Thread.sleep(10);
+        }
+    }
+
+}
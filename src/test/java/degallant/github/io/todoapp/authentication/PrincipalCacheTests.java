@@ -0,0 +1,115 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.domain.users.Role;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PrincipalCacheTests extends IntegrationTest {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    public void find_resolvesUserOnlyOnce() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        assertTrue(principalCache.find(userId).isPresent());
+
+        statistics.clear();
+        assertTrue(principalCache.find(userId).isPresent());
+        assertEquals(0, statistics.getQueryExecutionCount());
+
+    }
+
+    @Test
+    public void find_doesNotCacheUnknownUsers() {
+
+        var unknown = UUID.randomUUID();
+        assertTrue(principalCache.find(unknown).isEmpty());
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        assertTrue(principalCache.find(unknown).isEmpty());
+        assertEquals(1, statistics.getQueryExecutionCount());
+
+    }
+
+    @Test
+    public void removedUser_isRefusedRightAway() {
+
+        makeAdmin();
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("auth/profile").get().isOk();
+
+        request.asUser(ADMIN_USER).to("admin/users/" + userId).delete().isNoContent();
+
+        request.withToken(accessToken).to("auth/profile").get()
+                .hasField("$.type", contains("error.token_unknown_subject"));
+        assertTrue(principalCache.find(userId).isEmpty());
+
+    }
+
+    @Test
+    public void promotedUser_hasNewRoleRightAway() {
+
+        makeAdmin();
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("auth/profile").get().isOk()
+                .hasField("$.role", isEqualTo(Role.ROLE_USER.name()));
+
+        request.asUser(ADMIN_USER).to("admin/promote").withField("user_id", userId.toString()).post().isOk();
+
+        request.withToken(accessToken).to("auth/profile").get().isOk()
+                .hasField("$.role", isEqualTo(Role.ROLE_ADMIN.name()));
+
+    }
+
+    @Test
+    public void patchedProfile_isSeenRightAway() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("auth/profile").get().isOk();
+
+        request.withToken(accessToken).to("auth/profile").withField("name", "Jane Doe").patch().isOk();
+
+        request.withToken(accessToken).to("auth/profile").get().isOk()
+                .hasField("$.name", isEqualTo("Jane Doe"));
+
+    }
+
+    @Test
+    public void patchedProfile_doesNotChangeTheSharedPrincipal() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("auth/profile").get().isOk();
+        var shared = principalCache.find(userId).orElseThrow();
+        var name = shared.getName();
+
+        request.withToken(accessToken).to("auth/profile").withField("name", "Jane Doe").patch().isOk();
+
+        assertEquals(name, shared.getName());
+        assertEquals("Jane Doe", principalCache.find(userId).orElseThrow().getName());
+
+    }
+
+}
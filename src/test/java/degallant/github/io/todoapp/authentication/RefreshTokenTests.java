@@ -0,0 +1,152 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.domain.users.Role;
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshTokenTests extends IntegrationTest {
+
+    @Autowired
+    private RevokedFamilies revokedFamilies;
+
+    @Autowired
+    private RefreshTokenStore refreshTokenStore;
+
+    @Test
+    public void refresh_rotatesTokens_andRevokesFamilyWhenOldRefreshTokenIsReused() {
+
+        var tokens = login();
+        var rotated = request.withToken(tokens[1]).to("auth/refresh").get().isOk().getBody();
+        var accessToken = rotated.get("access_token").asText();
+        var refreshToken = rotated.get("refresh_token").asText();
+
+        request.withToken(accessToken).to("auth/profile").get().isOk();
+
+        request.withToken(tokens[1]).to("auth/refresh")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+        request.withToken(refreshToken).to("auth/refresh")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+        request.withToken(accessToken).to("auth/profile")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+    }
+
+    @Test
+    public void refresh_fails_whenAccessTokenIsUsed() {
+
+        var tokens = login();
+
+        request.withToken(tokens[0]).to("auth/refresh")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_not_refresh"));
+
+    }
+
+    @Test
+    public void refresh_exchangesTokensWithoutFamilyOnlyOnce() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var legacyToken = token.make().withSubject(userId).asRefresh().build();
+
+        var refreshToken = request.withToken(legacyToken).to("auth/refresh").get().isOk()
+                .getBody().get("refresh_token").asText();
+
+        request.withToken(legacyToken).to("auth/refresh")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+        request.withToken(refreshToken).to("auth/refresh").get().isOk();
+
+    }
+
+    @Test
+    public void logout_revokesAccessAndRefreshTokens() {
+
+        var tokens = login();
+
+        request.withToken(tokens[0]).to("auth/logout").post().isNoContent();
+
+        request.withToken(tokens[0]).to("auth/profile")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+        request.withToken(tokens[1]).to("auth/refresh")
+                .get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+    }
+
+    @Test
+    public void revokedFamilies_areReloadedFromStore() {
+
+        var family = UUID.randomUUID();
+        assertFalse(revokedFamilies.isRevoked(family));
+
+        refreshTokenStore.revoke(family, Instant.now().plus(1, ChronoUnit.HOURS));
+        assertFalse(revokedFamilies.isRevoked(family));
+
+        revokedFamilies.sync();
+        assertTrue(revokedFamilies.isRevoked(family));
+
+        for (int index = 0; index < 10_000; index++) {
+            assertFalse(revokedFamilies.isRevoked(UUID.randomUUID()));
+        }
+
+    }
+
+    @Test
+    public void inMemoryStore_rotatesAndRevokesFamilies() {
+
+        var store = new InMemoryRefreshTokenStore();
+        var family = UUID.randomUUID();
+        var first = UUID.randomUUID();
+        var second = UUID.randomUUID();
+        var expiresAt = Instant.now().plus(1, ChronoUnit.HOURS);
+
+        store.start(family, first, expiresAt);
+        assertTrue(store.rotate(family, first, second, expiresAt, expiresAt));
+        assertTrue(store.revoked().isEmpty());
+
+        assertFalse(store.rotate(family, first, UUID.randomUUID(), expiresAt, expiresAt));
+        assertFalse(store.rotate(family, second, UUID.randomUUID(), expiresAt, expiresAt));
+        assertEquals(expiresAt, store.revoked().get(family));
+
+        assertTrue(store.exchangeLegacy("digest", expiresAt));
+        assertFalse(store.exchangeLegacy("digest", expiresAt));
+
+    }
+
+    /**
+     * @return the access and the refresh token of a new login
+     */
+    private String[] login() {
+        usersRepository.save(UserEntity.builder()
+                .email(DEFAULT_USER)
+                .name("Default")
+                .password(passwordEncoder.encode("changeme"))
+                .role(Role.ROLE_USER)
+                .build());
+
+        var body = request.asGuest().to("auth/email")
+                .withField("email", DEFAULT_USER)
+                .withField("password", "changeme")
+                .post().isOk()
+                .getBody();
+
+        return new String[]{body.get("access_token").asText(), body.get("refresh_token").asText()};
+    }
+
+}
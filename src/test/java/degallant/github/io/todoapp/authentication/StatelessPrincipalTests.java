@@ -0,0 +1,107 @@
+package degallant.github.io.todoapp.authentication;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@TestPropertySource(properties = "app.auth.stateless_principal=true")
+public class StatelessPrincipalTests extends IntegrationTest {
+
+    @Autowired
+    private PrincipalCache principalCache;
+
+    @Autowired
+    private TokenVersions tokenVersions;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void request_doesNotReadItsUser() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+        principalCache.evict(userId);
+
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        request.withToken(accessToken).to("tasks").get().isOk();
+        assertEquals(0, statistics.getEntityLoadCount());
+
+        request.withToken(accessToken).to("tasks").withField("title", "Task A").post().isCreated();
+        request.withToken(accessToken).to("auth/profile").get().isOk()
+                .hasField("$.email", isEqualTo(DEFAULT_USER));
+
+    }
+
+    @Test
+    public void tokenWithoutPrincipalClaims_isStillAccepted() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.make().withSubject(userId).build();
+
+        request.withToken(accessToken).to("tasks").get().isOk();
+
+    }
+
+    @Test
+    public void removedUser_isRefusedRightAway() {
+
+        makeAdmin();
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("tasks").get().isOk();
+
+        request.asUser(ADMIN_USER).to("admin/users/" + userId).delete().isNoContent();
+
+        request.withToken(accessToken).to("tasks").get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+    }
+
+    @Test
+    public void promotedUser_needsNewTokenWithNewRole() {
+
+        makeAdmin();
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var accessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+
+        request.withToken(accessToken).to("admin/statistics").get().isForbidden();
+
+        request.asUser(ADMIN_USER).to("admin/promote").withField("user_id", userId.toString()).post().isOk();
+
+        request.withToken(accessToken).to("tasks").get().isBadRequest()
+                .hasField("$.type", contains("error.token_revoked"));
+
+        var newAccessToken = token.makeAccessTokenFor(usersRepository.findById(userId).orElseThrow());
+        request.withToken(newAccessToken).to("admin/statistics").get().isOk();
+
+    }
+
+    @Test
+    public void tokenVersions_areReloadedFromDatabase() {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        assertFalse(tokenVersions.isOutdated(userId, 0));
+
+        jdbcTemplate.update("UPDATE users SET token_version = 1, updated_at = now() WHERE id = ?", userId);
+        assertFalse(tokenVersions.isOutdated(userId, 0));
+
+        tokenVersions.sync();
+        assertTrue(tokenVersions.isOutdated(userId, 0));
+        assertFalse(tokenVersions.isOutdated(userId, 1));
+
+    }
+
+}
@@ -0,0 +1,43 @@
+package degallant.github.io.todoapp.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CachedResponseTests {
+
+    private final byte[] body = "{\"total\":0}".getBytes(StandardCharsets.UTF_8);
+    private final CachedResponse response = CachedResponse.of(body, true);
+
+    @Test
+    public void gzip_isServedWhenAccepted() {
+
+        var entity = response.toResponseEntity("br, gzip;q=0.8");
+
+        assertEquals("gzip", entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(response.gzipped(), entity.getBody());
+        assertTrue(CachedResponse.acceptsGzip("*"));
+        assertTrue(CachedResponse.acceptsGzip("GZIP"));
+
+    }
+
+    @Test
+    public void identity_isServedWhenGzipIsRefused() {
+
+        var entity = response.toResponseEntity("gzip;q=0");
+
+        assertNull(entity.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertArrayEquals(body, entity.getBody());
+        assertTrue(entity.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+
+        assertFalse(CachedResponse.acceptsGzip("x-gzip"));
+        assertFalse(CachedResponse.acceptsGzip("gzip;q=0.0, *"));
+        assertFalse(CachedResponse.acceptsGzip("br, *;q=0"));
+        assertFalse(CachedResponse.acceptsGzip(null));
+
+    }
+
+}
@@ -0,0 +1,190 @@
+package degallant.github.io.todoapp.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+public class NearCacheTests extends IntegrationTest {
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private RedisCacheManager redisCacheManager;
+
+    @Autowired
+    private StringRedisTemplate redis;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private RedisConnectionFactory connectionFactory;
+
+    @Autowired
+    private CacheConfiguration configuration;
+
+    @SpyBean
+    private CacheInvalidationBus bus;
+
+    @Test
+    public void cacheManager_isNearCacheManager() {
+
+        assertInstanceOf(NearCacheManager.class, cacheManager);
+        assertInstanceOf(NearCache.class, cacheManager.getCache("near-test"));
+
+    }
+
+    @Test
+    public void near_servesEntriesWithoutGoingToRedis() {
+
+        var cache = cacheManager.getCache("near-test");
+        cache.put("key", "value");
+
+        redisCacheManager.getCache("near-test").evict("key");
+
+        assertEquals("value", cache.get("key", String.class));
+
+    }
+
+    @Test
+    public void near_isFilledFromRedis() {
+
+        redisCacheManager.getCache("near-test").put("key", "value");
+
+        var cache = cacheManager.getCache("near-test");
+        assertEquals("value", cache.get("key", String.class));
+
+        redisCacheManager.getCache("near-test").evict("key");
+        assertEquals("value", cache.get("key", String.class));
+
+    }
+
+    @Test
+    public void evict_removesEntryFromBothLayers() {
+
+        var cache = cacheManager.getCache("near-test");
+        cache.put("key", "value");
+        cache.evict("key");
+
+        assertNull(redisCacheManager.getCache("near-test").get("key"));
+        assertNull(cache.get("key"));
+
+    }
+
+    @Test
+    public void put_isBroadcast_unlessAskedNotTo() {
+
+        var cache = (NearCache) cacheManager.getCache("near-test");
+        cache.putWithoutBroadcast("key", "value");
+        verify(bus, never()).publish(eq("near-test"), any());
+
+        cache.put("key", "value");
+        verify(bus).publish("near-test", "key");
+
+    }
+
+    @Test
+    public void overwrittenEntry_isNotServedStaleByAnotherNode() throws Exception {
+
+        var anotherBus = new CacheInvalidationBus(redis, mapper);
+        var listener = new RedisMessageListenerContainer();
+        listener.setConnectionFactory(connectionFactory);
+        listener.addMessageListener(anotherBus, new ChannelTopic(CacheInvalidationBus.CHANNEL));
+        listener.afterPropertiesSet();
+        listener.start();
+
+        try {
+            var anotherNode = new NearCacheManager(redisCacheManager, anotherBus, configuration, new SimpleMeterRegistry()).getCache("near-test");
+            anotherNode.put("key", "old");
+            assertEquals("old", anotherNode.get("key", String.class));
+
+            cacheManager.getCache("near-test").put("key", "new");
+
+            assertTrue(awaitValue(anotherNode, "key", "new"));
+        } finally {
+            listener.destroy();
+        }
+
+    }
+
+    @Test
+    public void near_isEvictedByInvalidationsFromOtherNodes() throws Exception {
+
+        var cache = cacheManager.getCache("near-test");
+        cache.put("key", "value");
+        cache.put("another", "value");
+        redisCacheManager.getCache("near-test").clear();
+
+        publishFromAnotherNode("near-test", "key");
+        assertTrue(awaitEviction(cache, "key"));
+        assertEquals("value", cache.get("another", String.class));
+
+        publishFromAnotherNode("near-test", null);
+        assertTrue(awaitEviction(cache, "another"));
+
+    }
+
+    @Test
+    public void layers_exposeHitRatios() {
+
+        var cache = cacheManager.getCache("near-test");
+        cache.get("missing");
+        cache.put("key", "value");
+        cache.get("key");
+
+        assertNotNull(meterRegistry.find("cache.hit.ratio").tag("layer", "near").gauge());
+        assertNotNull(meterRegistry.find("cache.hit.ratio").tag("layer", "redis").gauge());
+        assertNotNull(meterRegistry.find("cache.gets").tags("layer", "near", "result", "hit").functionCounter());
+        assertNotNull(meterRegistry.find("cache.gets").tags("layer", "redis", "result", "miss").functionCounter());
+
+    }
+
+    private void publishFromAnotherNode(String cacheName, String key) throws Exception {
+        var invalidation = new CacheInvalidationBus.Invalidation(UUID.randomUUID().toString(), cacheName, key);
+        redis.convertAndSend(CacheInvalidationBus.CHANNEL, mapper.writeValueAsString(invalidation));
+    }
+
+    private boolean awaitValue(Cache cache, String key, String value) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            if (value.equals(cache.get(key, String.class))) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+
+    private boolean awaitEviction(Cache cache, String key) throws InterruptedException {
+        for (int attempt = 0; attempt < 50; attempt++) {
+            if (cache.get(key) == null) {
+                return true;
+            }
+            Thread.sleep(100);
+        }
+        return false;
+    }
+
+}
@@ -0,0 +1,158 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class TasksBatchCreationTests extends IntegrationTest {
+
+    @Autowired
+    private CreateTasksService createService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void batch_createsAllTheTasks() {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var parentId = entityRequest.asUser(DEFAULT_USER).makeTask("Parent").uuid();
+
+        //the list is cached before the batch, it has to be invalidated by it
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(1));
+
+        var body = List.of(
+                Map.of("title", "Task A", "priority", "P1", "tags_ids", tags.asString(), "project_id", projectId.toString(), "parent_id", parentId.toString()),
+                Map.of("title", "Task B", "complete", "true"),
+                Map.of("title", "Task C", "due_date", "2030-01-01T12:50:29.790511-04:00", "tags_ids", tags.asString())
+        );
+
+        var response = request.asUser(DEFAULT_USER).to("tasks/batch").withBody(body).post().isCreated()
+                .hasField("$.count", isEqualTo(3))
+                .hasField("$.tasks.length()", isEqualTo(3))
+                .getBody();
+
+        request.asUser(DEFAULT_USER).to(response.get("tasks").get(0).asText()).get().isOk()
+                .hasField("$.title", isEqualTo("Task A"))
+                .hasField("$.priority", isEqualTo("P1"))
+                .hasField("$._embedded.tags.length()", isEqualTo(2))
+                .hasField("$._embedded.parent.id", isEqualTo(parentId.toString()))
+                .hasField("$._embedded.project.id", isEqualTo(projectId.toString()));
+
+        request.asUser(DEFAULT_USER).to(response.get("tasks").get(1).asText()).get().isOk()
+                .hasField("$.title", isEqualTo("Task B"))
+                .hasField("$.complete", isEqualTo(true));
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(4));
+
+    }
+
+    @Test
+    public void batch_reportsTheErrorsOfEveryTaskAndCreatesNone() {
+
+        var projectId = entityRequest.asUser(ANOTHER_USER).makeProject("Project A").uuid();
+
+        var body = List.of(
+                Map.of("title", "Task A"),
+                Map.of("title", ""),
+                Map.of("title", "Task C", "parent_id", UUID.randomUUID().toString(), "project_id", projectId.toString()),
+                Map.of("title", "Task D", "tags_ids", "invalid")
+        );
+
+        request.asUser(DEFAULT_USER).to("tasks/batch").withBody(body).post().isBadRequest()
+                .hasField("$.errors.length()", isEqualTo(4))
+                .hasField("$.errors[0].field", isEqualTo("[1].title"))
+                .hasField("$.errors[0].type", contains("validation.is_empty"))
+                .hasField("$.errors[1].field", isEqualTo("[2].parent_id"))
+                .hasField("$.errors[1].type", contains("validation.do_not_exist"))
+                .hasField("$.errors[2].field", isEqualTo("[2].project_id"))
+                .hasField("$.errors[2].type", contains("validation.do_not_exist"))
+                .hasField("$.errors[3].field", isEqualTo("[3].tags_ids"))
+                .hasField("$.errors[3].type", contains("validation.invalid_id_list"));
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+    }
+
+    @Test
+    public void batch_reportsNullTasksByIndex() {
+
+        request.asUser(DEFAULT_USER).to("tasks/batch").withBody(Collections.singletonList(null)).post().isBadRequest()
+                .hasField("$.errors.length()", isEqualTo(1))
+                .hasField("$.errors[0].field", isEqualTo("[0]"))
+                .hasField("$.errors[0].type", contains("validation.is_required"));
+
+        var body = Arrays.asList(Map.of("title", ""), null, Map.of("title", "Task C"));
+
+        request.asUser(DEFAULT_USER).to("tasks/batch").withBody(body).post().isBadRequest()
+                .hasField("$.errors.length()", isEqualTo(2))
+                .hasField("$.errors[0].field", isEqualTo("[0].title"))
+                .hasField("$.errors[1].field", isEqualTo("[1]"))
+                .hasField("$.errors[1].type", contains("validation.is_required"));
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+    }
+
+    @Test
+    public void batch_failsWhenEmpty() {
+
+        request.asUser(DEFAULT_USER).to("tasks/batch").withBody(List.of()).post().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("tasks"))
+                .hasField("$.errors[0].type", contains("validation.is_between"));
+
+    }
+
+    @Test
+    public void batch_loadsReferencesOnceAndInsertsInJdbcBatches() {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var parentId = entityRequest.asUser(DEFAULT_USER).makeTask("Parent").uuid();
+
+        var requests = new ArrayList<TasksDto.Create>();
+        for (int index = 0; index < 120; index++) {
+            var fields = Map.of("title", "Task " + index, "tags_ids", tags.asString(), "parent_id", parentId.toString(), "project_id", projectId.toString());
+            requests.add(mapper.convertValue(fields, TasksDto.Create.class));
+        }
+
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            statistics.clear();
+            var uris = createService.createAll(requests, user);
+
+            assertEquals(120, uris.size());
+            assertEquals(120, statistics.getEntityInsertCount());
+            //3 selects for the references, then the tasks and their tags in batches of 50
+            assertTrue(statistics.getPrepareStatementCount() <= 9, "statements: " + statistics.getPrepareStatementCount());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(121));
+
+    }
+
+}
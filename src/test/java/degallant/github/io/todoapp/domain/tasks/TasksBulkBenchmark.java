@@ -0,0 +1,73 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares completing 10k tasks one by one, the way a PATCH /v1/tasks/{id} does it (load, dirty check and save),
+ * with completing them all through PATCH /v1/tasks/bulk, which is a single UPDATE statement.
+ * <p>
+ * Run with ./gradlew benchmark, the amount of tasks can be changed with -Dbenchmark.tasks.
+ */
+@Tag("benchmark")
+public class TasksBulkBenchmark extends IntegrationTest {
+
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 10_000);
+
+    @Autowired
+    private PatchTasksService patchService;
+
+    @Autowired
+    private BulkTasksService bulkService;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void bulkPatch_beatsOneByOne() throws Exception {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, complete, user_id, created_at)
+                SELECT gen_random_uuid(), 'Task ' || i, false, ?, now()
+                FROM generate_series(1, ?) AS i
+                """, user.getId(), TASKS);
+        var ids = jdbcTemplate.queryForList("SELECT id FROM tasks WHERE user_id = ? AND title <> 'Task A'", UUID.class, user.getId());
+
+        var complete = mapper.convertValue(Map.of("complete", "true"), TasksDto.Create.class);
+        var start = System.nanoTime();
+        for (UUID id : ids) {
+            patchService.patch(id.toString(), complete, user);
+        }
+        var oneByOneTime = (System.nanoTime() - start) / 1_000_000.0;
+
+        var bulk = mapper.convertValue(Map.of("ids", mapper.writeValueAsString(ids), "complete", "false"), TasksDto.Bulk.class);
+        start = System.nanoTime();
+        var count = bulkService.patch(bulk, null, null, null, null, user).orElseThrow();
+        var bulkTime = (System.nanoTime() - start) / 1_000_000.0;
+
+        System.out.printf("%d tasks: one by one %.0fms, bulk %.0fms%n", TASKS, oneByOneTime, bulkTime);
+
+        assertEquals(TASKS, count);
+        assertEquals(0, tasksRepository.count((root, query, builder) -> builder.isTrue(root.get("complete"))));
+        assertTrue(bulkTime < oneByOneTime);
+
+    }
+
+}
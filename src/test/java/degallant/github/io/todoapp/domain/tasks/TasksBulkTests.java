@@ -0,0 +1,168 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.Identifier;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TasksBulkTests extends IntegrationTest {
+
+    @Autowired
+    private BulkTasksService bulkService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void patch_changesTheTasksWithTheGivenIds() {
+
+        var tasks = entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B", "Task C");
+        var otherTask = entityRequest.asUser(ANOTHER_USER).makeTask("Task D");
+
+        //the list is cached before the change, it has to be invalidated by it
+        request.asUser(DEFAULT_USER).to("tasks?complete=true").get().isOk().hasField("$.total", isEqualTo(0));
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("ids", ids(tasks.get(0), tasks.get(2), otherTask))
+                .withField("complete", "true")
+                .withField("priority", "P1")
+                .patch().isOk()
+                .hasField("$.count", isEqualTo(2));
+
+        request.asUser(DEFAULT_USER).to("tasks?complete=true").get().isOk().hasField("$.total", isEqualTo(2));
+        request.asUser(DEFAULT_USER).to(tasks.get(0).uri()).get().isOk()
+                .hasField("$.priority", isEqualTo("P1"))
+                .hasField("$.updated_at", existsAndNotNull());
+        request.asUser(ANOTHER_USER).to(otherTask.uri()).get().isOk()
+                .hasField("$.complete", isEqualTo(false));
+
+    }
+
+    @Test
+    public void patch_changesTheTasksThatMatchTheFilters() {
+
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var tasks = entityRequest.asUser(DEFAULT_USER).makeTasks("Walk the dog", "Feed the dog", "Buy milk");
+        request.asUser(DEFAULT_USER).to(tasks.get(1).uri()).withField("complete", "true").patch().isOk();
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk?title=dog&complete=false")
+                .withField("project_id", projectId.toString())
+                .patch().isOk()
+                .hasField("$.count", isEqualTo(1));
+
+        request.asUser(DEFAULT_USER).to(tasks.get(0).uri()).get().isOk()
+                .hasField("$._embedded.project.id", isEqualTo(projectId.toString()));
+        request.asUser(DEFAULT_USER).to(tasks.get(1).uri()).get().isOk()
+                .hasField("$._embedded.project", doesNotExists());
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk?title=dog")
+                .withField("ids", ids(tasks.get(1), tasks.get(2)))
+                .withField("priority", "P3")
+                .patch().isOk()
+                .hasField("$.count", isEqualTo(1));
+
+    }
+
+    @Test
+    public void patch_withNothingToChange_isNoContent() {
+
+        var task = entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("ids", ids(task))
+                .patch().isNoContent();
+
+    }
+
+    @Test
+    public void patch_failsWhenRequestIsInvalid() {
+
+        var projectId = entityRequest.asUser(ANOTHER_USER).makeProject("Project A").uuid();
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("complete", "true")
+                .patch().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("ids"))
+                .hasField("$.errors[0].type", contains("validation.is_required"));
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("ids", "[]")
+                .withField("complete", "true")
+                .patch().isBadRequest()
+                .hasField("$.errors[0].type", contains("validation.is_between"));
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk?complete=false")
+                .withField("project_id", projectId.toString())
+                .withField("priority", "P9")
+                .patch().isBadRequest()
+                .hasField("$.errors.length()", isEqualTo(2));
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk?due_date=tomorrow")
+                .withField("complete", "true")
+                .patch().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("due_date"));
+
+    }
+
+    @Test
+    public void delete_softDeletesTheTasks() {
+
+        var tasks = entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B", "Task C", "Task D");
+        request.asUser(DEFAULT_USER).to(tasks.get(3).uri()).withField("complete", "true").patch().isOk();
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("ids", ids(tasks.get(0), tasks.get(1)))
+                .delete().isOk()
+                .hasField("$.count", isEqualTo(2));
+
+        request.asUser(DEFAULT_USER).to(tasks.get(0).uri()).get().isNotFound();
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk?complete=true").delete().isOk()
+                .hasField("$.count", isEqualTo(1));
+
+        //deleted tasks are not deleted again
+        request.asUser(DEFAULT_USER).to("tasks/bulk")
+                .withField("ids", ids(tasks.get(0), tasks.get(2)))
+                .delete().isOk()
+                .hasField("$.count", isEqualTo(1));
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+        request.asUser(DEFAULT_USER).to("tasks/bulk").delete().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("ids"));
+
+    }
+
+    @Test
+    public void patch_runsASingleStatement() throws Exception {
+
+        var tasks = entityRequest.asUser(DEFAULT_USER).makeNTasks(20);
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        var ids = tasks.stream().map(Identifier::uuid).map(UUID::toString).toList();
+        var body = mapper.convertValue(Map.of("ids", mapper.writeValueAsString(ids), "complete", "true"), TasksDto.Bulk.class);
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        statistics.clear();
+        var count = bulkService.patch(body, null, null, null, null, user);
+
+        assertEquals(20, count.orElseThrow());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+    }
+
+    private String ids(Identifier... identifiers) {
+        return new Identifier.Collection(List.of(identifiers)).asString();
+    }
+
+}
@@ -1,12 +1,110 @@
 package degallant.github.io.todoapp.domain.tasks;
 
 import degallant.github.io.todoapp.test.IntegrationTest;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
 
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
+
 public class TasksDetailsTests extends IntegrationTest {
 
+    @Autowired
+    private DetailsTaskService detailsService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void details_loadsTaskAndRelationsInTwoStatements() {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var parentId = entityRequest.asUser(DEFAULT_USER).makeTask("Parent").uuid();
+        var taskId = request.asUser(DEFAULT_USER).to("tasks")
+                .withField("title", "Task A")
+                .withField("parent_id", parentId)
+                .withField("project_id", projectId)
+                .withField("tags_ids", tags.asString())
+                .post().isCreated().getLocationUUID();
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Subtask A", "parent_id", taskId.toString());
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Subtask B", "parent_id", taskId.toString());
+
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        var authentication = new UsernamePasswordAuthenticationToken(user, null, user.roles());
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            statistics.clear();
+            var details = transactionTemplate.execute(status -> detailsService.details(taskId.toString(), authentication));
+
+            assertEquals(2, statistics.getPrepareStatementCount());
+            assertTrue(details.getLinks().hasSingleLink());
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+        request.asUser(DEFAULT_USER).to("tasks/" + taskId).get().isOk()
+                .hasField("$._embedded.tags.length()", isEqualTo(2))
+                .hasField("$._embedded.subtasks.length()", isEqualTo(2))
+                .hasField("$._embedded.parent.title", isEqualTo("Parent"))
+                .hasField("$._embedded.project.title", isEqualTo("Project A"));
+
+    }
+
+    @Test
+    public void etag_returnsNotModifiedUntilTaskChanges() {
+
+        var task = entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+
+        var etag = request.asUser(DEFAULT_USER).to(task.uri()).get().isOk().getETag();
+        assertNotNull(etag);
+
+        request.asUser(DEFAULT_USER).to(task.uri()).withHeader(HttpHeaders.IF_NONE_MATCH, etag).get().isNotModified();
+
+        request.asUser(DEFAULT_USER).to(task.uri()).withField("title", "Task B").patch().isOk();
+
+        request.asUser(DEFAULT_USER).to(task.uri()).withHeader(HttpHeaders.IF_NONE_MATCH, etag)
+                .get().isOk()
+                .hasField("$.title", isEqualTo("Task B"));
+
+    }
+
+    @Test
+    public void etag_changesWhenEmbeddedTagChanges() {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A");
+        var task = request.asUser(DEFAULT_USER).to("tasks")
+                .withField("title", "Task A")
+                .withField("tags_ids", tags.asString())
+                .post().isCreated().getLocation();
+
+        var etag = request.asUser(DEFAULT_USER).to(task).get().isOk().getETag();
+
+        request.asUser(DEFAULT_USER).to(tags.get(0).uri()).withField("name", "Tag B").patch().isOk();
+
+        var newEtag = request.asUser(DEFAULT_USER).to(task).withHeader(HttpHeaders.IF_NONE_MATCH, etag)
+                .get().isOk()
+                .hasField("$._embedded.tags[0].name", isEqualTo("Tag B"))
+                .getETag();
+
+        assertNotEquals(etag, newEtag);
+
+    }
+
     @Test
     public void details_failsWhenTaskWasDeleted() {
 
@@ -0,0 +1,109 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The fetch size is smaller than the amount of tasks, so the rows are read from the cursor in more than one batch.
+ */
+@TestPropertySource(properties = "app.export.fetch_size=2")
+public class TasksExportTests extends IntegrationTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void export_writesOneLinePerTaskWithItsRelations() throws IOException {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var parentId = entityRequest.asUser(DEFAULT_USER).makeTask("Parent").uuid();
+        var taskId = request.asUser(DEFAULT_USER).to("tasks")
+                .withField("title", "Task A")
+                .withField("priority", "P2")
+                .withField("parent_id", parentId)
+                .withField("project_id", projectId)
+                .withField("tags_ids", tags.asString())
+                .post().isCreated().getLocationUUID();
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task B", "Task C", "Task D");
+
+        var lines = export(DEFAULT_USER);
+
+        assertEquals(5, lines.size());
+        var task = lines.stream().filter(line -> line.get("id").asText().equals(taskId.toString())).findFirst().orElseThrow();
+        assertEquals("Task A", task.get("title").asText());
+        assertEquals("P2", task.get("priority").asText());
+        assertFalse(task.get("complete").asBoolean());
+        assertEquals(parentId.toString(), task.get("parent_id").asText());
+        assertEquals(projectId.toString(), task.get("project_id").asText());
+        assertEquals(Set.of(tags.get(0).uuid().toString(), tags.get(1).uuid().toString()),
+                Set.of(task.get("tags_ids").get(0).asText(), task.get("tags_ids").get(1).asText()));
+        assertNotNull(task.get("created_at").asText());
+
+        var parent = lines.stream().filter(line -> line.get("id").asText().equals(parentId.toString())).findFirst().orElseThrow();
+        assertTrue(parent.get("project_id").isNull());
+        assertEquals(0, parent.get("tags_ids").size());
+
+    }
+
+    @Test
+    public void export_skipsDeletedTasksAndTasksOfOtherUsers() throws IOException {
+
+        var tasks = entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B", "Task C");
+        entityRequest.asUser(ANOTHER_USER).makeTasks("Task D", "Task E");
+        request.asUser(DEFAULT_USER).to(tasks.get(1).uri()).delete().isNoContent();
+
+        var lines = export(DEFAULT_USER);
+
+        assertEquals(2, lines.size());
+        assertEquals(Set.of(tasks.get(0).uuid().toString(), tasks.get(2).uuid().toString()),
+                Set.of(lines.get(0).get("id").asText(), lines.get(1).get("id").asText()));
+        assertTrue(export(ADMIN_USER).isEmpty());
+
+    }
+
+    @Test
+    public void export_writesTheDatesInTheRequestedOffset() throws IOException {
+
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails(
+                "title", "Task A",
+                "due_date", "2030-01-01T12:50:29.790511-04:00"
+        );
+
+        var body = request.asUser(DEFAULT_USER).to("tasks/export")
+                .withHeader("Accept-Offset", "+02:00")
+                .get().isOk().getRawBody();
+
+        assertEquals("2030-01-01T18:50:29.790511+02:00", mapper.readTree(body).get("due_date").asText());
+
+    }
+
+    private List<JsonNode> export(String user) throws IOException {
+        var response = request.asUser(user).to("tasks/export").get().isOk();
+        assertEquals(MediaType.APPLICATION_NDJSON, response.getHeaders().getContentType());
+
+        var body = response.getRawBody();
+        var lines = new ArrayList<JsonNode>();
+        if (body == null) {
+            return lines;
+        }
+        for (String line : new String(body, StandardCharsets.UTF_8).split("\n")) {
+            if (!line.isEmpty()) {
+                lines.add(mapper.readTree(line));
+            }
+        }
+        return lines;
+    }
+
+}
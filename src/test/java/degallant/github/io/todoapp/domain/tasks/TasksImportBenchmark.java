@@ -0,0 +1,102 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Enumeration;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Measures the rows per second of the tasks import for a csv and a json file, the files are made
+ * while they are read, so they are never held in memory, same as an upload.
+ * <p>
+ * Run with ./gradlew benchmark, the amount of rows can be changed with -Dbenchmark.tasks.
+ */
+@Tag("benchmark")
+public class TasksImportBenchmark extends IntegrationTest {
+
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 200_000);
+    private static final int ROWS_PER_CHUNK = 1000;
+
+    @Autowired
+    private ImportTasksService importService;
+
+    @Test
+    public void import_csvAndJson() throws Exception {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B").asString();
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+
+        var csvTags = "\"" + tags.replace("\"", "\"\"") + "\"";
+        var csv = file("title,description,due_date,priority,complete,project_id,tags_ids\n", "", row -> row % 2 == 0
+                ? "Task " + row + ",Imported from another tool,2020-01-01T10:00:00Z,P2,true," + projectId + "," + csvTags + "\n"
+                : "Task " + row + ",,,,,,\n");
+
+        var jsonTags = "\"" + tags.replace("\"", "\\\"") + "\"";
+        var json = file("[", "]", row -> (row > 0 ? "," : "") + (row % 2 == 0
+                ? "{\"title\":\"Task " + row + "\",\"description\":\"Imported from another tool\",\"due_date\":\"2020-01-01T10:00:00Z\",\"priority\":\"P2\",\"complete\":\"true\",\"project_id\":\"" + projectId + "\",\"tags_ids\":" + jsonTags + "}"
+                : "{\"title\":\"Task " + row + "\"}"));
+
+        var start = System.nanoTime();
+        var csvImported = importService.importTasks(csv, ImportTasksService.CSV, user, OutputStream.nullOutputStream());
+        var csvTime = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        start = System.nanoTime();
+        var jsonImported = importService.importTasks(json, MediaType.APPLICATION_JSON_VALUE, user, OutputStream.nullOutputStream());
+        var jsonTime = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        System.out.printf("%d rows: csv %.1fs (%.0f rows/s), json %.1fs (%.0f rows/s)%n",
+                TASKS, csvTime, TASKS / csvTime, jsonTime, TASKS / jsonTime);
+
+        assertEquals(TASKS, csvImported);
+        assertEquals(TASKS, jsonImported);
+
+    }
+
+    private InputStream file(String head, String tail, IntFunction<String> row) {
+        var chunks = (TASKS + ROWS_PER_CHUNK - 1) / ROWS_PER_CHUNK;
+        return new SequenceInputStream(new Enumeration<>() {
+
+            private int chunk = -1;
+
+            @Override
+            public boolean hasMoreElements() {
+                return chunk <= chunks;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                chunk++;
+                if (chunk == 0) {
+                    return bytes(head);
+                }
+                if (chunk > chunks) {
+                    return bytes(tail);
+                }
+                var builder = new StringBuilder();
+                var first = (chunk - 1) * ROWS_PER_CHUNK;
+                for (int index = first; index < Math.min(first + ROWS_PER_CHUNK, TASKS); index++) {
+                    builder.append(row.apply(index));
+                }
+                return bytes(builder.toString());
+            }
+
+        });
+    }
+
+    private InputStream bytes(String value) {
+        return new ByteArrayInputStream(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
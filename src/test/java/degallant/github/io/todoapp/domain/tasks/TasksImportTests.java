@@ -0,0 +1,138 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The progress is reported every 2 rows, so it shows up with a few rows.
+ */
+@TestPropertySource(properties = "app.import.progress_rows=2")
+public class TasksImportTests extends IntegrationTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void csv_importsTheValidRowsAndReportsTheInvalidOnes() throws IOException {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+
+        //the cached list has to be invalidated by the import
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+        var csv = "title,description,due_date,priority,complete,project_id,tags_ids\n" +
+                "Task A,\"Has a comma, and \"\"quotes\"\"\",2020-01-01T06:00:00-04:00,P1,true," + projectId + ",\"" + tags.asString().replace("\"", "\"\"") + "\"\n" +
+                "Task B,,,,,,\n" +
+                ",no title,,,,,\n" +
+                "Task D,,not a date,P9,,,\n" +
+                "Task E,,,,false,,\n";
+
+        var lines = importTasks(csv, "text/csv");
+
+        assertEquals("running", lines.get(0).get("status").asText());
+        assertEquals(2, lines.get(0).get("rows").asInt());
+        //rows are counted from the first one after the header
+        assertEquals(3, lines.get(1).get("row").asInt());
+        assertEquals("title", lines.get(1).get("errors").get(0).get("field").asText());
+        assertTrue(lines.get(1).get("errors").get(0).get("type").asText().contains("validation.is_required"));
+        assertEquals(4, lines.get(2).get("row").asInt());
+        assertEquals(2, lines.get(2).get("errors").size());
+        assertEquals(4, lines.get(3).get("rows").asInt());
+        assertEquals(2, lines.get(3).get("rejected").asInt());
+
+        var summary = lines.get(lines.size() - 1);
+        assertEquals("done", summary.get("status").asText());
+        assertEquals(5, summary.get("rows").asInt());
+        assertEquals(3, summary.get("imported").asInt());
+        assertEquals(2, summary.get("rejected").asInt());
+
+        request.asUser(DEFAULT_USER).to("tasks?s=title:asc").get().isOk()
+                .hasField("$.total", isEqualTo(3))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task A"))
+                .hasField("$._embedded.tasks[0].description", isEqualTo("Has a comma, and \"quotes\""))
+                .hasField("$._embedded.tasks[0].complete", isEqualTo(true));
+
+        var taskId = request.asUser(DEFAULT_USER).to("tasks?s=title:asc").get().isOk()
+                .getBody().get("_embedded").get("tasks").get(0).get("id").asText();
+        request.asUser(DEFAULT_USER).to("tasks/" + taskId).get().isOk()
+                .hasField("$.priority", isEqualTo("P1"))
+                .hasField("$.due_date", isEqualTo("2020-01-01T06:00:00-04:00"))
+                .hasField("$._embedded.tags.length()", isEqualTo(2))
+                .hasField("$._embedded.project.id", isEqualTo(projectId.toString()));
+
+    }
+
+    @Test
+    public void json_importsTheTasksAndChecksTheOwnerOfTheReferences() throws IOException {
+
+        var otherProjectId = entityRequest.asUser(ANOTHER_USER).makeProject("Project B").uuid();
+
+        var json = "[{\"title\": \"Task A\", \"complete\": \"true\"}, {\"title\": \"Task B\", \"project_id\": \"" + otherProjectId + "\"}, {\"title\": \"Task C\"}]";
+
+        var lines = importTasks(json, MediaType.APPLICATION_JSON_VALUE);
+
+        assertEquals(2, lines.get(0).get("row").asInt());
+        assertEquals("project_id", lines.get(0).get("errors").get(0).get("field").asText());
+        var summary = lines.get(lines.size() - 1);
+        assertEquals("done", summary.get("status").asText());
+        assertEquals(2, summary.get("imported").asInt());
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(2));
+        request.asUser(ANOTHER_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+    }
+
+    @Test
+    public void malformedFile_failsAndImportsNothing() throws IOException {
+
+        var json = "[{\"title\": \"Task A\"}, {\"title\": \"Task B\"}, {\"title\": \"Task C\"}, {\"title\": ";
+
+        var lines = importTasks(json, MediaType.APPLICATION_JSON_VALUE);
+
+        var summary = lines.get(lines.size() - 1);
+        assertEquals("failed", summary.get("status").asText());
+        assertEquals(0, summary.get("imported").asInt());
+        assertTrue(summary.has("error"));
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$.total", isEqualTo(0));
+
+    }
+
+    @Test
+    public void otherContentTypes_areNotSupported() {
+
+        request.asUser(DEFAULT_USER).to("tasks/import")
+                .withContentType(MediaType.TEXT_PLAIN_VALUE)
+                .withBody("title\nTask A\n")
+                .post().isBadRequest()
+                .hasField("$.type", contains("error.invalidrequesttype"));
+
+    }
+
+    private List<JsonNode> importTasks(String body, String contentType) throws IOException {
+        var response = request.asUser(DEFAULT_USER).to("tasks/import")
+                .withContentType(contentType)
+                .withBody(body)
+                .post().isOk()
+                .getRawBody();
+
+        var lines = new ArrayList<JsonNode>();
+        for (String line : new String(response, StandardCharsets.UTF_8).split("\n")) {
+            lines.add(mapper.readTree(line));
+        }
+        return lines;
+    }
+
+}
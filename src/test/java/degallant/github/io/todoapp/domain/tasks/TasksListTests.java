@@ -1,11 +1,43 @@
 package degallant.github.io.todoapp.domain.tasks;
 
 import degallant.github.io.todoapp.test.IntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.test.web.reactive.server.JsonPathAssertions;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
 
 public class TasksListTests extends IntegrationTest {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ListTasksService listService;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     @Test
     public void user_canListOnlyItsTasks() {
 
@@ -39,6 +71,29 @@ public class TasksListTests extends IntegrationTest {
 
     }
 
+    @Test
+    public void list_selectsColumnsWithoutLoadingEntities() {
+
+        entityRequest.asUser(DEFAULT_USER).makeNTasks(15);
+
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+        try {
+            for (var paging : List.of("offset", "slice", "cursor")) {
+                statistics.clear();
+                var response = transactionTemplate.execute(status -> listService.list("1", "title:asc", null, null, null, null, paging, null, null, user));
+
+                assertNotNull(response);
+                assertEquals(0, statistics.getEntityLoadCount(), paging);
+            }
+        } finally {
+            RequestContextHolder.resetRequestAttributes();
+        }
+
+    }
+
     @Test
     public void list_ignoresDeletedOnes() {
 
@@ -198,6 +253,280 @@ public class TasksListTests extends IntegrationTest {
 
     }
 
+    @Test
+    public void pagination_keepsSortAndFiltersInLinks() {
+
+        entityRequest.asUser(DEFAULT_USER).makeNTasks(15);
+
+        var next = request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("s", "title:desc")
+                .withParam("complete", "false")
+                .get().isOk()
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task 9"))
+                .getBody().get("_links").get("next").get("href").asText();
+
+        request.asUser(DEFAULT_USER).to(next).get().isOk()
+                .hasField("$.count", isEqualTo(5))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task 13"));
+
+    }
+
+    @Test
+    public void slice_navigatesWithoutExactCount() {
+
+        entityRequest.asUser(DEFAULT_USER).makeNTasks(15);
+
+        var next = request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "slice")
+                .get().isOk()
+                .hasField("$.count", isEqualTo(10))
+                .hasField("$.total", isEqualTo("15"))
+                .hasField("$.pages", doesNotExists())
+                .hasField("$._links.last", doesNotExists())
+                .hasField("$._links.previous", doesNotExists())
+                .getBody().get("_links").get("next").get("href").asText();
+
+        assertTrue(next.contains("paging=slice"));
+
+        request.asUser(DEFAULT_USER).to(next).get().isOk()
+                .hasField("$.count", isEqualTo(5))
+                .hasField("$._links.next", doesNotExists())
+                .hasField("$._links.previous", exists())
+                .hasField("$._links.first", exists());
+
+    }
+
+    @Test
+    public void slice_capsTheTotal() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, complete, user_id, created_at, updated_at)
+                SELECT gen_random_uuid(), 'Task ' || i, false, ?, now(), now() FROM generate_series(1, 1000) AS i
+                """, user.getId());
+
+        request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "slice")
+                .get().isOk()
+                .hasField("$.count", isEqualTo(10))
+                .hasField("$.total", isEqualTo("1000+"))
+                .hasField("$._links.next", exists());
+
+    }
+
+    @Test
+    public void cursor_navigatesThroughAllTasks() {
+
+        entityRequest.asUser(DEFAULT_USER).makeNTasks(15);
+
+        var firstPage = request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "cursor")
+                .get().isOk()
+                .hasField("$.count", isEqualTo(10))
+                .hasField("$.total", doesNotExists())
+                .hasField("$._links.last", doesNotExists())
+                .getBody();
+
+        var next = firstPage.get("_links").get("next").get("href").asText();
+
+        var secondPage = request.asUser(DEFAULT_USER).to(next).get().isOk()
+                .hasField("$.count", isEqualTo(5))
+                .hasField("$._links.next", doesNotExists())
+                .hasField("$._links.first", exists())
+                .getBody();
+
+        var titles = new HashSet<String>();
+        firstPage.get("_embedded").get("tasks").forEach(task -> titles.add(task.get("title").asText()));
+        secondPage.get("_embedded").get("tasks").forEach(task -> titles.add(task.get("title").asText()));
+
+        assertEquals(15, titles.size());
+
+    }
+
+    @Test
+    public void cursor_keepsSortOrderAcrossPages() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task B", "Task D", "Task C", "Task A");
+
+        var next = request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "cursor")
+                .withParam("size", 2)
+                .withParam("s", "title:desc")
+                .get().isOk()
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task D"))
+                .hasField("$._embedded.tasks[1].title", isEqualTo("Task C"))
+                .getBody().get("_links").get("next").get("href").asText();
+
+        request.asUser(DEFAULT_USER).to(next).get().isOk()
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task B"))
+                .hasField("$._embedded.tasks[1].title", isEqualTo("Task A"));
+
+    }
+
+    @Test
+    public void cursor_handlesTasksWithoutDueDate() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Task A", "due_date", "2030-01-01T12:50:29.790511-04:00");
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task B");
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Task C", "due_date", "2030-02-01T12:50:29.790511-04:00");
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task D");
+
+        var titles = new ArrayList<String>();
+        var body = request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "cursor")
+                .withParam("size", 1)
+                .withParam("s", "due_date:asc")
+                .get().isOk().getBody();
+
+        while (true) {
+            body.get("_embedded").get("tasks").forEach(task -> titles.add(task.get("title").asText()));
+            if (!body.get("_links").has("next")) {
+                break;
+            }
+            body = request.asUser(DEFAULT_USER).to(body.get("_links").get("next").get("href").asText()).get().isOk().getBody();
+        }
+
+        assertEquals(4, titles.size());
+        assertEquals(List.of("Task A", "Task C"), titles.subList(0, 2));
+        assertTrue(titles.containsAll(List.of("Task B", "Task D")));
+
+    }
+
+    @Test
+    public void cursor_failsWithInvalidCursor() {
+
+        request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("after", "invalid")
+                .get().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("after"))
+                .hasField("$.errors[0].type", contains("validation.invalid_cursor"));
+
+    }
+
+    @Test
+    public void cursor_failsWithInvalidPaging() {
+
+        request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "invalid")
+                .get().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("paging"))
+                .hasField("$.errors[0].type", contains("validation.is_paging"));
+
+    }
+
+    @Test
+    public void cursor_failsWhenSizeIsOutOfBounds() {
+
+        request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "cursor")
+                .withParam("size", 0)
+                .get().isBadRequest()
+                .hasField("$.errors[0].type", contains("validation.is_between"));
+
+        request.asUser(DEFAULT_USER).to("tasks")
+                .withParam("paging", "cursor")
+                .withParam("size", 101)
+                .get().isBadRequest()
+                .hasField("$.errors[0].type", contains("validation.is_between"));
+
+    }
+
+    @Test
+    public void cache_isRefreshedAfterWrites() {
+
+        var ids = entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$._embedded.tasks.length()", isEqualTo(2));
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$._embedded.tasks.length()", isEqualTo(2));
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task C");
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$._embedded.tasks.length()", isEqualTo(3));
+
+        request.asUser(DEFAULT_USER).to(ids.get(0).uri()).withField("title", "Task Z").patch().isOk();
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$._embedded.tasks.[?(@.title == 'Task Z')]", exists());
+
+        request.asUser(DEFAULT_USER).to(ids.get(1).uri()).delete().isNoContent();
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk().hasField("$._embedded.tasks.length()", isEqualTo(2));
+
+    }
+
+    @Test
+    public void etag_returnsNotModifiedUntilTasksChange() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+
+        var etag = request.asUser(DEFAULT_USER).to("tasks").get().isOk().getETag();
+        assertNotNull(etag);
+
+        request.asUser(DEFAULT_USER).to("tasks").withHeader(HttpHeaders.IF_NONE_MATCH, etag).get().isNotModified();
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task C");
+
+        var newEtag = request.asUser(DEFAULT_USER).to("tasks").withHeader(HttpHeaders.IF_NONE_MATCH, etag)
+                .get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(3))
+                .getETag();
+
+        assertNotEquals(etag, newEtag);
+
+    }
+
+    @Test
+    public void etag_isDifferentForEachPageAndUser() {
+
+        entityRequest.asUser(DEFAULT_USER).makeNTasks(15);
+        entityRequest.asUser(ANOTHER_USER).makeNTasks(15);
+
+        var firstPage = request.asUser(DEFAULT_USER).to("tasks").get().isOk().getETag();
+        var secondPage = request.asUser(DEFAULT_USER).to("tasks").withParam("p", 2).get().isOk().getETag();
+        var anotherUser = request.asUser(ANOTHER_USER).to("tasks").get().isOk().getETag();
+
+        assertNotEquals(firstPage, secondPage);
+        assertNotEquals(firstPage, anotherUser);
+
+        request.asUser(ANOTHER_USER).to("tasks").withHeader(HttpHeaders.IF_NONE_MATCH, firstPage).get().isOk();
+
+    }
+
+    /**
+     * The test client asks for gzip and decompresses the body itself, so here we can only check
+     * that the gzipped variant is negotiated and that it carries the same compact body.
+     */
+    @Test
+    public void cache_storesCompactAndGzippedResponses() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+
+        var miss = request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+        var hit = request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+
+        var missBody = new String(miss.getRawBody(), StandardCharsets.UTF_8);
+        var hitBody = new String(hit.getRawBody(), StandardCharsets.UTF_8);
+
+        assertEquals(missBody, hitBody);
+        assertFalse(hitBody.contains("\n"));
+        assertTrue(hit.getHeaders().getVary().contains(HttpHeaders.ACCEPT_ENCODING));
+        hit.hasField("$._embedded.tasks.length()", isEqualTo(2));
+
+    }
+
+    /**
+     * The registry in use reports counts per step, so we can only check that the meters are there.
+     */
+    @Test
+    public void cache_recordsHitsAndMisses() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+
+        assertNotNull(meterRegistry.find("cache.TasksList").tag("result", "miss").counter());
+        assertNotNull(meterRegistry.find("cache.TasksList").tag("result", "hit").counter());
+
+    }
+
     @Test
     public void sorting_failsWithInvalidSort() {
 
@@ -313,6 +642,65 @@ public class TasksListTests extends IntegrationTest {
 
     }
 
+    @Test
+    public void filter_byTitleIgnoresCase() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Tak cat to vet", "Take DOG for walk");
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("title", "Dog")
+                .get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(1))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Take DOG for walk"));
+
+    }
+
+    @Test
+    public void filter_byTitleMatchesWildcardsLiterally() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Reach 100% coverage", "Reach 1000 users", "Rename file_name");
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("title", "0%")
+                .get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(1))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Reach 100% coverage"));
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("title", "e_n")
+                .get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(1))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Rename file_name"));
+
+    }
+
+    @Test
+    public void search_matchesTitleAndDescriptionRankedByRelevance() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Buy bread", "description", "and some Milk");
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Milk the cow", "description", "milk it twice, fresh milk");
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Walk the dog", "description", "around the block");
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("q", "milk")
+                .get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(2))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Milk the cow"))
+                .hasField("$._embedded.tasks[1].title", isEqualTo("Buy bread"))
+                .hasField("$._links.self.href", contains("q=milk"));
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("q", "milk").withParam("s", "title:asc")
+                .get().isOk()
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Buy bread"));
+
+    }
+
+    @Test
+    public void search_failsWithEmptyQuery() {
+
+        request.asUser(DEFAULT_USER).to("tasks").withParam("q", "")
+                .get().isBadRequest()
+                .hasField("$.errors[0].field", isEqualTo("q"))
+                .hasField("$.errors[0].type", contains("validation.is_empty"));
+
+    }
+
     @Test
     public void filter_failsWithEmptyTitle() {
 
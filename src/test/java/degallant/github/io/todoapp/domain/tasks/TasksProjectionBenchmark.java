@@ -0,0 +1,102 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the memory allocated to list a page of tasks as managed entities and as TaskSummary projections.
+ * <p>
+ * Each query runs in its own transaction, like a request with its own persistence context.
+ * <p>
+ * Run with ./gradlew benchmark, the page size can be changed with -Dbenchmark.page_size.
+ */
+@Tag("benchmark")
+public class TasksProjectionBenchmark extends IntegrationTest {
+
+    private static final int TASKS = 10_000;
+    private static final int PAGE_SIZE = Integer.getInteger("benchmark.page_size", 100);
+    private static final int RUNS = 200;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private ListTasksService listService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    public void projection_allocatesLessThanEntities() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        seed(user);
+
+        var specification = listService.matchesAnyOf(user, null, null, null, null);
+        var page = PageRequest.of(3, PAGE_SIZE, Sort.by("title", "id"));
+
+        assertEquals(
+                tasksRepository.findAll(specification, page).map(TaskEntity::getId).getContent(),
+                tasksRepository.findSummaries(specification, page).map(TaskSummary::getId).getContent()
+        );
+
+        var entities = measure(() -> tasksRepository.findAll(specification, page));
+        var summaries = measure(() -> tasksRepository.findSummaries(specification, page));
+
+        System.out.printf("%d tasks per page, median of %d runs: entities %.1fKB in %.2fms, projections %.1fKB in %.2fms%n",
+                PAGE_SIZE, RUNS, entities[0] / 1024, entities[1], summaries[0] / 1024, summaries[1]);
+
+        assertTrue(summaries[0] < entities[0]);
+
+    }
+
+    private void seed(UserEntity user) {
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, description, complete, due_date, user_id, created_at, updated_at)
+                SELECT gen_random_uuid(), 'Task ' || i, 'Remember to ' || md5(i::text), i % 2 = 0, now() + i * interval '1 hour', ?, now(), now()
+                FROM generate_series(1, ?) AS i
+                """, user.getId(), TASKS);
+        jdbcTemplate.execute("ANALYZE tasks");
+    }
+
+    /**
+     * @return the median of the bytes allocated by the current thread and of the time in milliseconds
+     */
+    private double[] measure(Supplier<?> query) {
+        var threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int warmup = 0; warmup < 50; warmup++) {
+            transactionTemplate.execute(status -> query.get());
+        }
+        var bytes = new double[RUNS];
+        var times = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            var allocatedBefore = threads.getCurrentThreadAllocatedBytes();
+            var start = System.nanoTime();
+            transactionTemplate.execute(status -> query.get());
+            times[run] = (System.nanoTime() - start) / 1_000_000.0;
+            bytes[run] = threads.getCurrentThreadAllocatedBytes() - allocatedBefore;
+        }
+        Arrays.sort(bytes);
+        Arrays.sort(times);
+        return new double[]{bytes[RUNS / 2], times[RUNS / 2]};
+    }
+
+}
@@ -0,0 +1,109 @@
+package degallant.github.io.todoapp.domain.tasks;
+
+import degallant.github.io.todoapp.domain.users.UserEntity;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the old case-sensitive LIKE title filter with the indexed title filter and the full-text search.
+ * <p>
+ * Run with ./gradlew benchmark, the amount of seeded tasks can be changed with -Dbenchmark.tasks.
+ */
+@Tag("benchmark")
+public class TasksSearchBenchmark extends IntegrationTest {
+
+    private static final int TASKS = Integer.getInteger("benchmark.tasks", 200_000);
+    private static final int RUNS = 20;
+
+    @Autowired
+    private TasksRepository tasksRepository;
+
+    @Autowired
+    private ListTasksService listService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    public void titleFilterAndSearch_useIndexesAndBeatLike() throws Exception {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+        var user = usersRepository.findByEmail(DEFAULT_USER).orElseThrow();
+        seed(user);
+
+        var word = md5("12345").substring(0, 8);
+        var substring = word.substring(2, 6);
+        var page = PageRequest.of(0, 10);
+
+        Specification<TaskEntity> like = (root, query, builder) -> builder.and(
+                builder.equal(root.get("user"), user),
+                builder.isNull(root.get("deletedAt")),
+                builder.like(root.get("title"), "%" + substring + "%")
+        );
+
+        var likeTime = measure(() -> tasksRepository.findAll(like, page));
+        var titleTime = measure(() -> tasksRepository.findAll(listService.matchesAnyOf(user, substring, null, null, null), page));
+        var searchTime = measure(() -> tasksRepository.findAll(listService.matchesAnyOf(user, null, word, null, null), page));
+
+        System.out.printf("%d tasks, median of %d runs: like %.2fms, indexed title %.2fms, full-text search %.2fms%n",
+                TASKS, RUNS, likeTime, titleTime, searchTime);
+
+        var titlePlan = explain("SELECT id FROM tasks WHERE user_id = ? AND deleted_at IS NULL AND lower(title) LIKE ?", user.getId(), "%" + substring + "%");
+        var searchPlan = explain("SELECT id FROM tasks WHERE user_id = ? AND deleted_at IS NULL AND to_tsvector('simple', title || ' ' || coalesce(description, '')) @@ plainto_tsquery('simple', ?)", user.getId(), word);
+
+        assertTrue(titlePlan.contains("tasks_title_trgm_idx"), titlePlan);
+        assertTrue(searchPlan.contains("tasks_search_idx"), searchPlan);
+        assertFalse(tasksRepository.findAll(listService.matchesAnyOf(user, null, word, null, null), page).isEmpty());
+
+    }
+
+    private void seed(UserEntity user) {
+        jdbcTemplate.update("""
+                INSERT INTO tasks (id, title, description, complete, user_id, created_at, updated_at)
+                SELECT gen_random_uuid(),
+                       (ARRAY['Buy', 'Walk', 'Call', 'Read', 'Write', 'Clean', 'Fix', 'Plan', 'Cook', 'Pay'])[1 + i % 10] || ' ' || substr(md5(i::text), 1, 8),
+                       'Remember to ' || md5((i * 7)::text),
+                       i % 2 = 0, ?, now(), now()
+                FROM generate_series(1, ?) AS i
+                """, user.getId(), TASKS);
+        jdbcTemplate.execute("ANALYZE tasks");
+    }
+
+    private double measure(Supplier<?> query) {
+        for (int warmup = 0; warmup < 3; warmup++) {
+            query.get();
+        }
+        var times = new double[RUNS];
+        for (int run = 0; run < RUNS; run++) {
+            var start = System.nanoTime();
+            query.get();
+            times[run] = (System.nanoTime() - start) / 1_000_000.0;
+        }
+        Arrays.sort(times);
+        return times[RUNS / 2];
+    }
+
+    private String explain(String sql, Object... args) {
+        return String.join("\n", jdbcTemplate.queryForList("EXPLAIN " + sql, String.class, args));
+    }
+
+    private String md5(String value) throws Exception {
+        var digest = MessageDigest.getInstance("MD5").digest(value.getBytes(StandardCharsets.UTF_8));
+        return String.format("%032x", new BigInteger(1, digest));
+    }
+
+}
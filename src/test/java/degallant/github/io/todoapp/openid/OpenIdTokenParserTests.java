@@ -0,0 +1,178 @@
+package degallant.github.io.todoapp.openid;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.api.client.json.gson.GsonFactory;
+import com.google.api.client.json.webtoken.JsonWebSignature;
+import com.google.api.client.json.webtoken.JsonWebToken;
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * The tokens here are signed with keys made by the test itself, nothing is fetched from google.
+ */
+public class OpenIdTokenParserTests {
+
+    private static final String CLIENT_ID = "test-client-id";
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final OpenIdConfiguration config = new OpenIdConfiguration(CLIENT_ID, null, null, 30, 3600);
+
+    private KeyPair keyPair;
+
+    @TempDir
+    private Path directory;
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        keyPair = makeKeyPair();
+    }
+
+    @Test
+    public void extract_acceptsTokenSignedByKeyFromFile() throws Exception {
+
+        var parser = new OpenIdTokenParser(config, fileSource(jwks("key-1", keyPair)));
+
+        var user = parser.extract(sign("key-1", keyPair, CLIENT_ID, 3600));
+
+        assertEquals("user@gmail.com", user.email());
+        assertEquals("Jhon Doe", user.name());
+        assertEquals("https://google.com/picture", user.pictureUrl());
+
+    }
+
+    @Test
+    public void extract_refusesTokenSignedByUnknownKey() throws Exception {
+
+        var parser = new OpenIdTokenParser(config, fileSource(jwks("key-1", keyPair)));
+
+        var token = sign("key-1", makeKeyPair(), CLIENT_ID, 3600);
+
+        assertThrows(OpenIdExtractionException.InvalidToken.class, () -> parser.extract(token));
+
+    }
+
+    @Test
+    public void extract_refusesExpiredTokenAndOtherAudience() throws Exception {
+
+        var parser = new OpenIdTokenParser(config, fileSource(jwks("key-1", keyPair)));
+
+        var expired = sign("key-1", keyPair, CLIENT_ID, -3600);
+        var otherAudience = sign("key-1", keyPair, "another-client-id", 3600);
+
+        assertThrows(OpenIdExtractionException.InvalidToken.class, () -> parser.extract(expired));
+        assertThrows(OpenIdExtractionException.InvalidToken.class, () -> parser.extract(otherAudience));
+
+    }
+
+    @Test
+    public void extract_failsWithMalformedToken() throws Exception {
+
+        var parser = new OpenIdTokenParser(config, fileSource(jwks("key-1", keyPair)));
+
+        assertThrows(OpenIdExtractionException.FailedParsing.class, () -> parser.extract("not-a-token"));
+
+    }
+
+    @Test
+    public void remote_refreshesKeysAndServesStaleOnesWhileFailing() throws Exception {
+
+        var body = new AtomicReference<>(jwks("key-1", keyPair));
+        var status = new AtomicInteger(200);
+        var server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/certs", exchange -> {
+            var bytes = body.get().getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Cache-Control", "public, max-age=1");
+            exchange.sendResponseHeaders(status.get(), bytes.length);
+            exchange.getResponseBody().write(bytes);
+            exchange.close();
+        });
+        server.start();
+
+        var meterRegistry = new SimpleMeterRegistry();
+        var uri = URI.create("http://localhost:" + server.getAddress().getPort() + "/certs");
+
+        try (var source = new RemoteVerificationKeySource(uri, mapper, Duration.ofMillis(100), Duration.ofSeconds(1), meterRegistry)) {
+            source.start();
+            var parser = new OpenIdTokenParser(config, source);
+
+            assertEquals("user@gmail.com", parser.extract(sign("key-1", keyPair, CLIENT_ID, 3600)).email());
+
+            status.set(500);
+            waitUntil(() -> meterRegistry.get("openid.keys.refresh.failures").counter().count() > 0);
+            assertEquals("user@gmail.com", parser.extract(sign("key-1", keyPair, CLIENT_ID, 3600)).email());
+
+            var rotated = makeKeyPair();
+            body.set(jwks("key-2", rotated));
+            status.set(200);
+            waitUntil(() -> source.keys().containsKey("key-2"));
+            assertEquals("user@gmail.com", parser.extract(sign("key-2", rotated, CLIENT_ID, 3600)).email());
+        } finally {
+            server.stop(0);
+        }
+
+    }
+
+    private VerificationKeySource fileSource(String jwks) throws Exception {
+        var file = directory.resolve("keys.json");
+        Files.writeString(file, jwks);
+        return new FileVerificationKeySource(new FileSystemResource(file), mapper);
+    }
+
+    private String jwks(String keyId, KeyPair pair) {
+        var key = (RSAPublicKey) pair.getPublic();
+        var encoder = Base64.getUrlEncoder().withoutPadding();
+        return """
+                {"keys": [{"kty": "RSA", "alg": "RS256", "kid": "%s", "n": "%s", "e": "%s"}]}
+                """.formatted(keyId, encoder.encodeToString(key.getModulus().toByteArray()), encoder.encodeToString(key.getPublicExponent().toByteArray()));
+    }
+
+    private String sign(String keyId, KeyPair pair, String audience, long expiresInSeconds) throws Exception {
+        var header = new JsonWebSignature.Header().setAlgorithm("RS256").setType("JWT").setKeyId(keyId);
+        var now = System.currentTimeMillis() / 1000;
+        var payload = new JsonWebToken.Payload()
+                .setIssuer("https://accounts.google.com")
+                .setAudience(audience)
+                .setSubject("1234567890")
+                .setIssuedAtTimeSeconds(now)
+                .setExpirationTimeSeconds(now + expiresInSeconds);
+        payload.set("email", "user@gmail.com");
+        payload.set("name", "Jhon Doe");
+        payload.set("picture", "https://google.com/picture");
+        return JsonWebSignature.signUsingRsaSha256(pair.getPrivate(), GsonFactory.getDefaultInstance(), header, payload);
+    }
+
+    private KeyPair makeKeyPair() throws Exception {
+        var generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        return generator.generateKeyPair();
+    }
+
+    private void waitUntil(BooleanSupplier condition) throws InterruptedException {
+        var deadline = System.currentTimeMillis() + 10_000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "condition not met in time");
+            Thread.sleep(50);
+        }
+    }
+
+}
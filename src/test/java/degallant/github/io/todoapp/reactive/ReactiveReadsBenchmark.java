@@ -0,0 +1,11 @@
+package degallant.github.io.todoapp.reactive;
+
+import degallant.github.io.todoapp.threads.ThreadsBenchmark;
+import org.springframework.test.context.TestPropertySource;
+
+/**
+ * The tasks list served by the reactive controllers, compare it with PlatformThreadsBenchmark.
+ */
+@TestPropertySource(properties = "app.reactive.enabled=true")
+public class ReactiveReadsBenchmark extends ThreadsBenchmark {
+}
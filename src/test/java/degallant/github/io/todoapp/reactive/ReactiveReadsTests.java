@@ -0,0 +1,156 @@
+package degallant.github.io.todoapp.reactive;
+
+import degallant.github.io.todoapp.domain.comments.ReactiveCommentsRepository;
+import degallant.github.io.todoapp.domain.tasks.ReactiveTasksRepository;
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@TestPropertySource(properties = "app.reactive.enabled=true")
+public class ReactiveReadsTests extends IntegrationTest {
+
+    @SpyBean
+    private ReactiveTasksRepository tasksRepository;
+
+    @SpyBean
+    private ReactiveCommentsRepository commentsRepository;
+
+    @Test
+    public void list_returnsTheSameBodyAsMvc() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task C", "Task A", "Task D", "Task B");
+        request.asUser(DEFAULT_USER).to("tasks").withField("title", "Task E").withField("complete", "true").post().isCreated();
+
+        //an explicit offset paging is served by the mvc controller
+        var mvc = request.asUser(DEFAULT_USER).to("tasks?s=title:asc&size=2&p=2&paging=offset").get().isOk().getBody();
+        verifyNoInteractions(tasksRepository);
+
+        var reactive = request.asUser(DEFAULT_USER).to("tasks?s=title:asc&size=2&p=2").get().isOk()
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task C"))
+                .hasField("$.total", isEqualTo(5))
+                .getBody();
+        verify(tasksRepository).findSummaries(any(), any(), any());
+
+        assertEquals(mvc.toString().replace("&paging=offset", ""), reactive.toString());
+
+        request.asUser(DEFAULT_USER).to("tasks?complete=true").get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(1))
+                .hasField("$._embedded.tasks[0].title", isEqualTo("Task E"));
+
+    }
+
+    @Test
+    public void list_withOtherFilters_isServedByMvc() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTasks("Task A", "Task B");
+
+        request.asUser(DEFAULT_USER).to("tasks?title=task b").get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(1));
+        request.asUser(DEFAULT_USER).to("tasks?paging=cursor").get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(2));
+
+        verifyNoInteractions(tasksRepository);
+
+    }
+
+    @Test
+    public void list_sharesTheCacheAndEtagsWithMvc() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+
+        var etag = request.asUser(DEFAULT_USER).to("tasks").get().isOk().getETag();
+        assertNotNull(etag);
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+        verify(tasksRepository, times(1)).findSummaries(any(), any(), any());
+
+        request.asUser(DEFAULT_USER).to("tasks").withHeader(HttpHeaders.IF_NONE_MATCH, etag).get().isNotModified();
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task B");
+
+        request.asUser(DEFAULT_USER).to("tasks").withHeader(HttpHeaders.IF_NONE_MATCH, etag).get().isOk()
+                .hasField("$._embedded.tasks.length()", isEqualTo(2));
+
+    }
+
+    @Test
+    public void list_failsWithTheSameErrorsAsMvc() {
+
+        request.asUser(DEFAULT_USER).to("tasks?size=0").get().isBadRequest()
+                .hasField("$.errors[0].type", contains("validation.is_between"));
+
+        request.asUser(DEFAULT_USER).to("tasks").withHeader("Accept-Offset", "").get().isBadRequest()
+                .hasField("$.errors[0].type", contains("validation.not_an_offset"));
+
+    }
+
+    @Test
+    public void details_hasTheSameRelationsAsMvc() {
+
+        var tags = entityRequest.asUser(DEFAULT_USER).makeTags("Tag A", "Tag B");
+        var projectId = entityRequest.asUser(DEFAULT_USER).makeProject("Project A").uuid();
+        var parentId = entityRequest.asUser(DEFAULT_USER).makeTask("Parent").uuid();
+        var taskId = request.asUser(DEFAULT_USER).to("tasks")
+                .withField("title", "Task A")
+                .withField("priority", "P2")
+                .withField("parent_id", parentId)
+                .withField("project_id", projectId)
+                .withField("tags_ids", tags.asString())
+                .post().isCreated().getLocationUUID();
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Subtask A", "parent_id", taskId.toString());
+
+        var etag = request.asUser(DEFAULT_USER).to("tasks/" + taskId).get().isOk()
+                .hasField("$.title", isEqualTo("Task A"))
+                .hasField("$.priority", isEqualTo("P2"))
+                .hasField("$.complete", isEqualTo(false))
+                .hasField("$._embedded.tags.length()", isEqualTo(2))
+                .hasField("$._embedded.subtasks[0].title", isEqualTo("Subtask A"))
+                .hasField("$._embedded.parent.title", isEqualTo("Parent"))
+                .hasField("$._embedded.project.title", isEqualTo("Project A"))
+                .hasField("$._links.self.href", contains("/v1/tasks/" + taskId))
+                .getETag();
+        verify(tasksRepository).findWithRelationsByIdAndUserId(taskId, usersRepository.findByEmail(DEFAULT_USER).orElseThrow().getId());
+
+        request.asUser(DEFAULT_USER).to("tasks/" + taskId).withHeader(HttpHeaders.IF_NONE_MATCH, etag).get().isNotModified();
+
+    }
+
+    @Test
+    public void details_ofUnknownTask_isNotFound() {
+
+        var taskId = entityRequest.asUser(DEFAULT_USER).makeTask("Task A").uuid();
+
+        request.asUser(ANOTHER_USER).to("tasks/" + taskId).get().isNotFound()
+                .hasField("$.type", contains("error.nosuchelement"));
+        request.asUser(DEFAULT_USER).to("tasks/" + UUID.randomUUID()).get().isNotFound();
+        request.asUser(DEFAULT_USER).to("tasks/invalid").get().isNotFound();
+
+    }
+
+    @Test
+    public void comments_listsTheCommentsThatWereNotDeleted() {
+
+        var taskId = entityRequest.asUser(DEFAULT_USER).makeTask("Task A").uuid();
+        var comments = entityRequest.asUser(DEFAULT_USER).commentOnTask(taskId, "Comment A", "Comment B");
+        request.asUser(DEFAULT_USER).to(comments.get(0).uri()).delete().isNoContent();
+
+        request.asUser(DEFAULT_USER).to("tasks/" + taskId + "/comments").get().isOk()
+                .hasField("$._embedded.comments.length()", isEqualTo(1))
+                .hasField("$._embedded.comments[0].text", isEqualTo("Comment B"))
+                .hasField("$._embedded.comments[0]._links.task.href", contains("/v1/tasks/" + taskId))
+                .hasField("$._links.self.href", contains("/v1/tasks/" + taskId + "/comments"));
+        verify(commentsRepository).findByTaskId(taskId);
+
+        request.asUser(ANOTHER_USER).to("tasks/" + taskId + "/comments").get().isNotFound();
+
+    }
+
+}
@@ -1,5 +1,6 @@
 package degallant.github.io.todoapp.test;
 
+import org.springframework.http.HttpMethod;
 import org.springframework.test.web.reactive.server.WebTestClient;
 import org.springframework.test.web.reactive.server.WebTestClientConfigurer;
 
@@ -27,6 +28,10 @@ public class ClientProxy {
         return client.delete();
     }
 
+    public WebTestClient.RequestBodyUriSpec deleteWithBody() {
+        return client.method(HttpMethod.DELETE);
+    }
+
     public void mutateWith(WebTestClientConfigurer configure) {
         client = client.mutateWith(configure);
     }
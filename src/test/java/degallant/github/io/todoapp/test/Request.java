@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.apache.logging.log4j.util.Strings;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.test.web.reactive.server.JsonPathAssertions;
 import org.springframework.test.web.reactive.server.WebTestClient;
 
@@ -106,6 +107,14 @@ public class Request {
             return this;
         }
 
+        /**
+         * Unlike a Content-Type set with withHeader, it is only sent with this request.
+         */
+        public Destination withContentType(String contentType) {
+            arguments.setContentType(contentType);
+            return this;
+        }
+
         public Destination withApiKey(String key) {
             arguments.setApiKey(key);
             return this;
@@ -150,6 +159,10 @@ public class Request {
         public ExecutedRequest delete() {
             authenticate();
             setHeaders();
+            if (!arguments.getBody().isEmpty()) {
+                arguments.setResponseSpec(resolveUri(arguments.getClient().deleteWithBody()).bodyValue(arguments.getBody()).exchange());
+                return new ExecutedRequest(arguments);
+            }
             arguments.setResponseSpec(resolveUri(arguments.getClient().delete()).exchange());
             return new ExecutedRequest(arguments);
         }
@@ -160,6 +173,10 @@ public class Request {
 
             var spec = resolveUri(arguments.getClient().post());
 
+            if (arguments.getContentType() != null) {
+                spec.contentType(MediaType.parseMediaType(arguments.getContentType()));
+            }
+
             if (arguments.getRawBody() != null) {
                 arguments.setResponseSpec(spec.bodyValue(arguments.getRawBody()).exchange());
                 return new ExecutedRequest(arguments);
@@ -262,6 +279,11 @@ public class Request {
             return this;
         }
 
+        public ExecutedRequest isServiceUnavailable() {
+            arguments.setResponseSpec(arguments.getResponseSpec().expectStatus().isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+            return this;
+        }
+
         public ExecutedRequest isCreated() {
             arguments.setResponseSpec(arguments.getResponseSpec().expectStatus().isCreated());
             return this;
@@ -277,6 +299,15 @@ public class Request {
             return this;
         }
 
+        public ExecutedRequest isNotModified() {
+            arguments.setResponseSpec(arguments.getResponseSpec().expectStatus().isNotModified());
+            return this;
+        }
+
+        public String getETag() {
+            return getHeaders().getETag();
+        }
+
         public URI getLocation() {
             return getBodySpec().returnResult().getResponseHeaders().getLocation();
         }
@@ -291,6 +322,16 @@ public class Request {
             return new Response(getBody(), arguments.getResponse().getResponseHeaders());
         }
 
+        public byte[] getRawBody() {
+            getBodySpec();
+            return arguments.getResponse().getResponseBodyContent();
+        }
+
+        public HttpHeaders getHeaders() {
+            getBodySpec();
+            return arguments.getResponse().getResponseHeaders();
+        }
+
         public JsonNode getBody() {
             getBodySpec();
             try {
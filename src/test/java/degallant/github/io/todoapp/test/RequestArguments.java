@@ -23,6 +23,7 @@ class RequestArguments {
     private URI uri;
     private String path;
     private Object rawBody;
+    private String contentType;
     private WebTestClient.ResponseSpec responseSpec;
     private WebTestClient.BodyContentSpec bodySpec;
     private EntityExchangeResult<byte[]> response;
@@ -86,6 +87,14 @@ class RequestArguments {
         this.rawBody = rawBody;
     }
 
+    public String getContentType() {
+        return contentType;
+    }
+
+    public void setContentType(String contentType) {
+        this.contentType = contentType;
+    }
+
     public Map<String, Object> getBody() {
         return body;
     }
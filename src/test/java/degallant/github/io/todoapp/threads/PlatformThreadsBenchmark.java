@@ -0,0 +1,7 @@
+package degallant.github.io.todoapp.threads;
+
+import org.springframework.test.context.TestPropertySource;
+
+@TestPropertySource(properties = "app.threads.mode=platform")
+public class PlatformThreadsBenchmark extends ThreadsBenchmark {
+}
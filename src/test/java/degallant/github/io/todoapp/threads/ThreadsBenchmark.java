@@ -0,0 +1,117 @@
+package degallant.github.io.todoapp.threads;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.TestPropertySource;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Sends the same authenticated requests with a lot of concurrent connections,
+ * so the thread mode or the read path of the subclasses can be compared.
+ * <p>
+ * The debug logs of the test profile are turned off, otherwise writing them is what gets measured.
+ * <p>
+ * Run with ./gradlew benchmark, the concurrency can be changed with -Dbenchmark.concurrency.
+ * Virtual threads need java 21, choose the java version of the benchmarks with -PbenchmarkJavaVersion=21.
+ */
+@Tag("benchmark")
+@TestPropertySource(properties = {"debug=false", "logging.level.root=warn", "logging.level.web=warn", "logging.level.sql=warn", "spring.jpa.show-sql=false", "spring.jpa.properties.hibernate.generate_statistics=false"})
+public abstract class ThreadsBenchmark extends IntegrationTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 1000);
+    private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20_000);
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    public void tasksList_underHighConcurrency() throws Exception {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+
+        measure("tasks list", userId, "/v1/tasks");
+
+    }
+
+    /**
+     * Unlike the list, the details of a task are not cached, so every request waits on the database.
+     */
+    @Test
+    public void taskDetails_underHighConcurrency() throws Exception {
+
+        var userId = authenticator.makeUser(DEFAULT_USER);
+        var taskId = entityRequest.asUser(DEFAULT_USER).makeTask("Task A").uuid();
+        entityRequest.asUser(DEFAULT_USER).makeTaskWithDetails("title", "Subtask A", "parent_id", taskId.toString());
+
+        measure("task details", userId, "/v1/tasks/" + taskId);
+
+    }
+
+    private void measure(String name, UUID userId, String path) throws Exception {
+
+        var jwtToken = token.make().withSubject(userId).withExpiresAt(Instant.now().plus(Duration.ofHours(1))).build();
+
+        var client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(30)).build();
+        var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+                .header("Accept", "application/json")
+                .header("Client-Agent", apiKey.toString())
+                .header("Authorization", "Bearer " + jwtToken)
+                .timeout(Duration.ofMinutes(2))
+                .build();
+
+        run(client, request, REQUESTS / 10);
+        var result = run(client, request, REQUESTS);
+
+        System.out.printf("%s %s, %d requests with %d concurrent connections: %.0f requests/s, p50 %.1fms, p99 %.1fms, %d failed%n",
+                getClass().getSimpleName(), name, REQUESTS, CONCURRENCY, result[0], result[1], result[2], (long) result[3]);
+
+        assertEquals(0, result[3]);
+
+    }
+
+    /**
+     * @return the throughput, the median and the 99th percentile latency in milliseconds and the amount of failed requests
+     */
+    private double[] run(HttpClient client, HttpRequest request, int amount) throws Exception {
+        var permits = new Semaphore(CONCURRENCY);
+        var latencies = new double[amount];
+        var failed = new AtomicInteger();
+        var futures = new CompletableFuture<?>[amount];
+
+        var start = System.nanoTime();
+        for (int index = 0; index < amount; index++) {
+            permits.acquire();
+            var requestStart = System.nanoTime();
+            var position = index;
+            futures[index] = client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+                latencies[position] = (System.nanoTime() - requestStart) / 1_000_000.0;
+                if (error != null || response.statusCode() != 200) {
+                    failed.incrementAndGet();
+                }
+                permits.release();
+            });
+        }
+        CompletableFuture.allOf(futures).exceptionally(error -> null).join();
+        var seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+        Arrays.sort(latencies);
+        return new double[]{amount / seconds, latencies[amount / 2], latencies[amount * 99 / 100], failed.get()};
+    }
+
+}
@@ -0,0 +1,66 @@
+package degallant.github.io.todoapp.threads;
+
+import degallant.github.io.todoapp.test.IntegrationTest;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.util.TestPropertyValues;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.test.context.TestPropertySource;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+@TestPropertySource(properties = "app.threads.mode=virtual")
+public class VirtualThreadsTests extends IntegrationTest {
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private AsyncTaskExecutor applicationTaskExecutor;
+
+    @Test
+    public void virtualMode_fallsBackToPlatformThreads_whenJavaHasNoVirtualThreads() throws Exception {
+
+        assertEquals(VirtualThreads.isSupported(), context.containsBean("requestsExecutor"));
+
+        var runsOnVirtualThread = applicationTaskExecutor.submit(() -> Thread.currentThread().toString().startsWith("VirtualThread"));
+        assertEquals(VirtualThreads.isSupported(), runsOnVirtualThread.get(10, TimeUnit.SECONDS));
+
+    }
+
+    @Test
+    public void requests_work_inVirtualMode() {
+
+        entityRequest.asUser(DEFAULT_USER).makeTask("Task A");
+        request.asUser(DEFAULT_USER).to("tasks").get().isOk();
+
+    }
+
+    @Test
+    public void executors_areShutDown_whenContextCloses() {
+
+        assumeTrue(VirtualThreads.isSupported());
+
+        var closed = new AnnotationConfigApplicationContext();
+        TestPropertyValues.of("app.threads.mode=virtual").applyTo(closed);
+        closed.register(VirtualThreadsConfiguration.class);
+        closed.refresh();
+
+        var tasksExecutor = closed.getBean("tasksExecutor", ExecutorService.class);
+        var schedulingExecutor = closed.getBean("schedulingExecutor", ScheduledExecutorService.class);
+        closed.close();
+
+        assertTrue(tasksExecutor.isShutdown());
+        assertTrue(schedulingExecutor.isShutdown());
+
+    }
+
+}